@@ -1,7 +1,8 @@
 package HospitalManagement.model;
 import java.time.LocalDateTime;
 public class Appointment {
-    private static int idCounter = 0; // This will be used to generate unique IDs
+    // Shared, thread-safe ID source; -Dhospital.idBlockSize=N lets each thread lease N IDs at a time
+    private static final IdAllocator ids = new IdAllocator(0, Integer.getInteger("hospital.idBlockSize", 1));
     private int appointmentId;
     private int doctorId;
     private String patientName;
@@ -17,15 +18,23 @@ public class Appointment {
         this.dateTime = dateTime;
         this.doctorId = doctorId;
 
-        // Update idCounter if needed
-        if (appointmentId > idCounter) {
-            idCounter = appointmentId;
-        }
+        // Never hand out an ID that is already in use
+        ids.ensureAtLeast(appointmentId);
+    }
+
+    // Keep IDs that are stored but not loaded (archived appointments) from being handed out again
+    public static void ensureIdCounterAtLeast(int usedId) {
+        ids.ensureAtLeast(usedId);
+    }
+
+    // Highest appointment ID handed out or recorded so far, for persisting across restarts
+    public static int getIdHighWater() {
+        return ids.highWater();
     }
 
     // Method to generate the next unique appointment ID
     public static int getNextAppointmentId() {
-        return ++idCounter; // Increment idCounter for the next unique ID
+        return ids.next();
     }
 
     public int getAppointmentId() {
@@ -0,0 +1,83 @@
+package HospitalManagement.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IdAllocator.java
+ *
+ * Lock-free source of unique, increasing int IDs. The high-water mark is an
+ * AtomicInteger: next() is a single atomic increment, and ensureAtLeast()
+ * raises the mark with a compare-and-set loop when IDs are read back from
+ * disk, so concurrent sessions never receive the same ID.
+ *
+ * With a block size above 1 each thread leases a whole range of IDs with one
+ * atomic add and then hands them out from that range without touching shared
+ * state. IDs stay unique but are no longer consecutive across threads, and
+ * whatever is left of a lease when the program exits is never used.
+ */
+public class IdAllocator {
+    private final AtomicInteger highWater;
+    private final int blockSize;
+    private final ThreadLocal<Lease> leases = new ThreadLocal<>();
+
+    public IdAllocator(int initialHighWater, int blockSize) {
+        this.highWater = new AtomicInteger(initialHighWater);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /** Next unique ID */
+    public int next() {
+        if (blockSize == 1) {
+            return highWater.incrementAndGet();
+        }
+        Lease lease = leases.get();
+        if (lease == null || !lease.hasNext()) {
+            lease = lease(blockSize);
+            leases.set(lease);
+        }
+        return lease.next();
+    }
+
+    /** Reserve count consecutive IDs for the caller's exclusive use */
+    public Lease lease(int count) {
+        int last = highWater.addAndGet(count);
+        return new Lease(last - count + 1, last);
+    }
+
+    /** Record that usedId is taken (e.g. loaded from a file) so it is never handed out */
+    public void ensureAtLeast(int usedId) {
+        int current;
+        while ((current = highWater.get()) < usedId) {
+            if (highWater.compareAndSet(current, usedId)) {
+                return;
+            }
+        }
+    }
+
+    /** Highest ID issued, leased or recorded so far */
+    public int highWater() {
+        return highWater.get();
+    }
+
+    /** A range of IDs owned by one caller; not shared between threads */
+    public static class Lease {
+        private int next;
+        private final int last;
+
+        Lease(int first, int last) {
+            this.next = first;
+            this.last = last;
+        }
+
+        public boolean hasNext() {
+            return next <= last;
+        }
+
+        public int next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("ID lease exhausted");
+            }
+            return next++;
+        }
+    }
+}
@@ -4,7 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Patient {
-    private static int idCounter = 100;
+    // Shared, thread-safe ID source; -Dhospital.idBlockSize=N lets each thread lease N IDs at a time
+    private static final IdAllocator ids = new IdAllocator(100, Integer.getInteger("hospital.idBlockSize", 1));
     private int patientId;
     private String name;
     private int age;
@@ -26,7 +27,22 @@ public class Patient {
         this.vegetarian = vegetarian;
         this.numberOfVisits = numberOfVisits;
         this.wasAdmittedBefore = wasAdmittedBefore;
-        idCounter = Math.max(idCounter, patientId); // update counter
+        ids.ensureAtLeast(patientId); // update counter
+    }
+
+    // Keep IDs that were used before (e.g. by since-deleted patients) from being handed out again
+    public static void ensureIdCounterAtLeast(int usedId) {
+        ids.ensureAtLeast(usedId);
+    }
+
+    // Highest patient ID handed out or recorded so far, for persisting across restarts
+    public static int getIdHighWater() {
+        return ids.highWater();
+    }
+
+    // Method to generate the next unique patient ID
+    public static int getNextPatientId() {
+        return ids.next();
     }
 
     public int getPatientId() {
@@ -0,0 +1,260 @@
+package HospitalManagement.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * AppendLog.java
+ *
+ * Append-only, sequenced record log used as a write-ahead log in front of the
+ * CSV files. Each record is one text line:
+ *
+ * seq TAB op TAB crc32 TAB payload
+ *
+ * where payload is usually a CSV row. Appending is a single write at the end
+ * of the file, so its cost does not grow with the data set. Durability is
+ * group-committed: appends only reach the operating system, and the file is
+ * fsync'd by sync() (called once per logical change or batch) or as soon as
+ * groupSize records are waiting, whichever comes first.
+ *
+ * On recovery every intact record is handed back in order. A torn or corrupt
+ * tail left by a crash fails its checksum and is cut off. After the owner has
+ * written a snapshot, reset() atomically replaces the log with one holding a
+ * CHECKPOINT marker and whatever was appended after the snapshot was taken.
+ * The marker can carry a payload of the owner's (e.g. an ID high-water mark
+ * that the dropped records were the only trace of), which checkpoint()
+ * returns after recovery. Sequence numbers carry on across resets, so they
+ * keep increasing for the life of the data.
+ */
+class AppendLog {
+    static final String CHECKPOINT = "CHECKPOINT";
+
+    /** One logged operation */
+    static class Record {
+        final long seq;
+        final String op;
+        final String payload;
+
+        Record(long seq, String op, String payload) {
+            this.seq = seq;
+            this.op = op;
+            this.payload = payload;
+        }
+    }
+
+    private final File file;
+    private final int groupSize;
+    private FileChannel channel;
+    private long lastSeq;
+    private String checkpoint = ""; // payload of the newest CHECKPOINT marker
+    private int records; // records since the last reset
+    private int unsynced; // appended but not yet fsync'd
+
+    AppendLog(String path, int groupSize) {
+        this.file = new File(path);
+        this.groupSize = Math.max(1, groupSize);
+    }
+
+    /**
+     * Hand every intact record after the last checkpoint to action, in order,
+     * drop a torn tail, and open the log for appending.
+     */
+    public synchronized void recover(Consumer<Record> action) {
+        close();
+        records = 0;
+        lastSeq = 0;
+        checkpoint = "";
+        long validLength = 0;
+        if (file.exists()) {
+            try {
+                byte[] bytes = Files.readAllBytes(file.toPath());
+                int start = 0;
+                for (int i = 0; i < bytes.length; i++) {
+                    if (bytes[i] != '\n')
+                        continue;
+                    Record record = decode(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                    if (record == null || validLength > 0 && record.seq <= lastSeq)
+                        break; // torn or out of order: nothing from here on can be trusted
+                    lastSeq = record.seq;
+                    validLength = i + 1;
+                    start = i + 1;
+                    if (record.op.equals(CHECKPOINT)) {
+                        checkpoint = record.payload;
+                    } else {
+                        records++;
+                        action.accept(record);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error reading " + file.getName() + ": " + e.getMessage());
+            }
+        }
+
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null)
+                parent.mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.size() > validLength) {
+                System.out.println("Discarding incomplete tail of " + file.getName() + ".");
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+            channel.position(validLength);
+        } catch (IOException e) {
+            System.out.println("Error opening " + file.getName() + ": " + e.getMessage());
+            channel = null;
+        }
+    }
+
+    /** Append one record; returns its sequence number, or -1 if it could not be written */
+    public synchronized long append(String op, String payload) {
+        if (channel == null) {
+            recover(record -> { }); // never opened: the owner loaded without replaying
+            if (channel == null)
+                return -1;
+        }
+        long seq = lastSeq + 1;
+        try {
+            write(channel, seq, op, payload);
+        } catch (IOException e) {
+            System.out.println("Error writing " + file.getName() + ": " + e.getMessage());
+            return -1;
+        }
+        lastSeq = seq;
+        records++;
+        if (++unsynced >= groupSize) {
+            sync();
+        }
+        return seq;
+    }
+
+    /** fsync everything appended so far (one fsync for the whole group) */
+    public synchronized void sync() {
+        if (channel == null || unsynced == 0)
+            return;
+        try {
+            channel.force(false);
+            unsynced = 0;
+        } catch (IOException e) {
+            System.out.println("Error syncing " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /** Replace the log with an empty one; call only after a snapshot holding every record has been written */
+    public synchronized void reset(String checkpoint) {
+        reset(lastSeq, checkpoint);
+    }
+
+    /**
+     * Drop the records up to and including throughSeq, which a snapshot now
+     * holds, and keep the later ones. Lets the owner write its snapshot
+     * without blocking writers, who go on appending while it runs. The
+     * checkpoint payload (one line, no newline) is kept in the marker.
+     */
+    public synchronized void reset(long throughSeq, String checkpoint) {
+        List<Record> kept = new ArrayList<>();
+        if (throughSeq < lastSeq) {
+            recover(record -> {
+                if (record.seq > throughSeq)
+                    kept.add(record);
+            });
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(out, throughSeq, CHECKPOINT, checkpoint);
+            for (Record record : kept) {
+                write(out, record.seq, record.op, record.payload);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            System.out.println("Error writing " + temp.getName() + ": " + e.getMessage());
+            return;
+        }
+
+        close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            records = kept.size();
+            this.checkpoint = checkpoint;
+        } catch (IOException e) {
+            System.out.println("Error replacing " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /** Records appended or replayed since the last checkpoint */
+    public synchronized int size() {
+        return records;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /** Payload of the newest checkpoint marker, "" if there is none */
+    public synchronized String checkpoint() {
+        return checkpoint;
+    }
+
+    public synchronized void close() {
+        if (channel == null)
+            return;
+        try {
+            if (unsynced > 0)
+                channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing " + file.getName() + ": " + e.getMessage());
+        }
+        channel = null;
+        unsynced = 0;
+    }
+
+    // ****************** ENCODING ******************
+
+    private static void write(FileChannel out, long seq, String op, String payload) throws IOException {
+        String body = seq + "\t" + op + "\t" + payload;
+        String line = seq + "\t" + op + "\t" + Long.toHexString(crc(body)) + "\t" + payload + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // null if the line is malformed or fails its checksum
+    private static Record decode(String line) {
+        String[] parts = line.split("\t", 4);
+        if (parts.length < 4)
+            return null;
+        try {
+            long seq = Long.parseLong(parts[0]);
+            String body = parts[0] + "\t" + parts[1] + "\t" + parts[3];
+            if (Long.parseLong(parts[2], 16) != crc(body))
+                return null;
+            return new Record(seq, parts[1], parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
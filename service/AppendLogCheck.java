@@ -0,0 +1,202 @@
+package HospitalManagement.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AppendLogCheck.java
+ *
+ * Crash-recovery check of AppendLog on a scratch file in the temp directory,
+ * never under data/. A log of known records is written, then damaged the way
+ * a crash or a bad disk would leave it, and recover() must hand back exactly
+ * the intact prefix, cut the file back to it, and keep appending after it
+ * with the next sequence number. Covered:
+ *
+ * - the file cut at every byte offset (a torn last write, or several);
+ * - a flipped byte in one record, which ends recovery at that record;
+ * - a replayed older record, whose sequence number goes backwards;
+ * - reset(throughSeq, checkpoint) keeping the later records, with the
+ * checkpoint payload and the sequence numbers surviving a restart;
+ * - a torn tail right after a checkpoint marker.
+ *
+ * The log's own "Discarding incomplete tail" messages are silenced. Throws at
+ * the first difference, so a clean run ends with "OK".
+ *
+ * Run from the project root after compiling:
+ * java -cp out HospitalManagement.service.AppendLogCheck
+ */
+public final class AppendLogCheck {
+    private static final int RECORDS = 12;
+
+    private AppendLogCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream console = System.out;
+        Path dir = Files.createTempDirectory("appendlog-check");
+        File file = dir.resolve("test.log").toFile();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            checkTornTails(file);
+            checkCorruptRecord(file);
+            checkSequenceGoingBack(file);
+            checkResetKeepsLaterRecords(file);
+            checkTornTailAfterCheckpoint(file);
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(dir.resolve("test.log.tmp"));
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(dir);
+        }
+        console.println("OK: torn tails, corrupt and replayed records, checkpoints");
+    }
+
+    // ****************** SCENARIOS ******************
+
+    private static void checkTornTails(File file) throws IOException {
+        byte[] full = writeLog(file);
+        List<Integer> ends = lineEnds(full);
+        for (int cut = 0; cut <= full.length; cut++) {
+            Files.write(file.toPath(), Arrays.copyOf(full, cut));
+            int intact = 0;
+            while (intact < ends.size() && ends.get(intact) <= cut) {
+                intact++;
+            }
+            int validLength = intact == 0 ? 0 : ends.get(intact - 1);
+            expectRecovers(file, intact, validLength, "cut at byte " + cut);
+        }
+    }
+
+    private static void checkCorruptRecord(File file) throws IOException {
+        byte[] full = writeLog(file);
+        List<Integer> ends = lineEnds(full);
+        for (int record = 0; record < RECORDS; record++) {
+            byte[] damaged = full.clone();
+            int at = ends.get(record) - 2; // inside the payload, so only the checksum notices
+            damaged[at] ^= 0x20;
+            Files.write(file.toPath(), damaged);
+            expectRecovers(file, record, record == 0 ? 0 : ends.get(record - 1), "byte flipped in record " + (record + 1));
+        }
+    }
+
+    private static void checkSequenceGoingBack(File file) throws IOException {
+        byte[] full = writeLog(file);
+        List<Integer> ends = lineEnds(full);
+        byte[] third = Arrays.copyOfRange(full, ends.get(1), ends.get(2)); // an intact line with seq 3
+        byte[] replayed = Arrays.copyOf(full, full.length + third.length);
+        System.arraycopy(third, 0, replayed, full.length, third.length);
+        Files.write(file.toPath(), replayed);
+        expectRecovers(file, RECORDS, full.length, "record 3 appended again");
+    }
+
+    private static void checkResetKeepsLaterRecords(File file) throws IOException {
+        writeLog(file);
+        AppendLog log = new AppendLog(file.getPath(), 1);
+        log.recover(record -> { });
+        log.reset(8, "maxId=42");
+        expect(log.size() == RECORDS - 8, "reset(8) kept " + log.size() + " records");
+        expect(log.append("UPDATE", payload(RECORDS + 1)) == RECORDS + 1, "sequence did not carry on after reset(8)");
+        log.close();
+
+        List<AppendLog.Record> replayed = recover(log);
+        expect(log.checkpoint().equals("maxId=42"), "checkpoint payload after restart: " + log.checkpoint());
+        expect(replayed.size() == RECORDS + 1 - 8, "restart after reset(8) replayed " + replayed.size() + " records");
+        for (int i = 0; i < replayed.size(); i++) {
+            expectRecord(replayed.get(i), 9 + i, "record " + (9 + i) + " after reset(8)");
+        }
+
+        log.reset("maxId=43");
+        log.close();
+        expect(recover(log).isEmpty(), "full reset left records behind");
+        expect(log.checkpoint().equals("maxId=43"), "checkpoint payload after full reset: " + log.checkpoint());
+        expect(log.lastSeq() == RECORDS + 1, "full reset lost the sequence: " + log.lastSeq());
+        log.close();
+    }
+
+    private static void checkTornTailAfterCheckpoint(File file) throws IOException {
+        writeLog(file);
+        AppendLog log = new AppendLog(file.getPath(), 1);
+        log.recover(record -> { });
+        log.reset("maxId=7");
+        log.append("INSERT", payload(RECORDS + 1));
+        log.close();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+        expect(recover(log).isEmpty(), "torn record after a checkpoint was replayed");
+        expect(log.checkpoint().equals("maxId=7"), "checkpoint lost with the torn tail: " + log.checkpoint());
+        expect(log.lastSeq() == RECORDS, "sequence after the torn tail: " + log.lastSeq());
+        log.close();
+    }
+
+    // ****************** HELPERS ******************
+
+    // A fresh log holding records 1..RECORDS; returns the file's bytes
+    private static byte[] writeLog(File file) throws IOException {
+        Files.deleteIfExists(file.toPath());
+        AppendLog log = new AppendLog(file.getPath(), 4);
+        log.recover(record -> { });
+        for (int seq = 1; seq <= RECORDS; seq++) {
+            expect(log.append(seq % 3 == 0 ? "DELETE" : "INSERT", payload(seq)) == seq, "append " + seq);
+        }
+        log.close();
+        return Files.readAllBytes(file.toPath());
+    }
+
+    // Tabs and non-ASCII text, as CSV rows can hold
+    private static String payload(int seq) {
+        return seq + ",Zoë Brandt,34,F,note\twith a tab," + "x".repeat(seq);
+    }
+
+    private static List<Integer> lineEnds(byte[] bytes) {
+        List<Integer> ends = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n')
+                ends.add(i + 1);
+        }
+        return ends;
+    }
+
+    private static List<AppendLog.Record> recover(AppendLog log) {
+        List<AppendLog.Record> records = new ArrayList<>();
+        log.recover(records::add);
+        return records;
+    }
+
+    // Recovery must return records 1..intact, leave the file validLength long, and append after it
+    private static void expectRecovers(File file, int intact, int validLength, String what) throws IOException {
+        AppendLog log = new AppendLog(file.getPath(), 1);
+        List<AppendLog.Record> records = recover(log);
+        expect(records.size() == intact, what + ": recovered " + records.size() + " records, expected " + intact);
+        for (int i = 0; i < intact; i++) {
+            expectRecord(records.get(i), i + 1, what);
+        }
+        expect(file.length() == validLength, what + ": file is " + file.length() + " bytes, expected " + validLength);
+
+        long next = log.append("INSERT", payload(intact + 1));
+        expect(next == intact + 1, what + ": next append got seq " + next);
+        log.close();
+        List<AppendLog.Record> reread = recover(log);
+        expect(reread.size() == intact + 1 && reread.get(intact).seq == intact + 1,
+                what + ": the record appended after recovery was not read back");
+        log.close();
+    }
+
+    private static void expectRecord(AppendLog.Record record, int seq, String what) {
+        expect(record.seq == seq, what + ": seq " + record.seq + ", expected " + seq);
+        expect(record.op.equals(seq % 3 == 0 ? "DELETE" : "INSERT") || seq > RECORDS, what + ": op of " + seq);
+        expect(record.payload.equals(payload(seq)), what + ": payload of " + seq + " differs");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition)
+            throw new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,540 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Appointment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * AppointmentArchive.java
+ *
+ * Hot/cold split of the appointment data. Appointments.csv only holds the hot
+ * window: today and the days ahead, which is all the booking path ever reads.
+ * Older appointments are moved out, when the data is loaded, into one CSV
+ * partition per month under data/archive (appointments-YYYY-MM.csv, same
+ * columns). None of the partitions are read at startup, so startup time and
+ * heap stay flat as history accumulates.
+ *
+ * data/archive/archive.meta records the highest archived ID, which keeps new
+ * appointment IDs unique without loading history, and the ID range stored in
+ * each month, so a lookup by ID opens at most the partitions whose range
+ * covers it. History queries stream the partitions one at a time and keep
+ * only the matches. Archived appointments are history: they can be looked up
+ * and deleted (which rewrites their partition) but not edited.
+ *
+ * The hot file is read from its binary snapshot (see BinarySnapshot) while
+ * that is current, and writeHot() refreshes the snapshot with the CSV.
+ *
+ * -Dhospital.hotPastDays=N keeps the last N days in the hot file as well
+ * (default 0).
+ */
+class AppointmentArchive {
+    static final String APPOINTMENTS_CSV_FILE = "data/Appointments.csv";
+    static final String HEADER = "AppointmentID,PatientID,PatientName,Reason,DateTime,DoctorID";
+    private static final String APPOINTMENTS_TEMP_FILE = "data/Appointments_temp.csv";
+    private static final String SNAPSHOT = "appointments";
+    private static final String ARCHIVE_DIR = "data/archive";
+    private static final String META_FILE = ARCHIVE_DIR + "/archive.meta";
+    private static final String MAX_ID_KEY = "maxId";
+    private static final int HOT_PAST_DAYS = Math.max(0, Integer.getInteger("hospital.hotPastDays", 0));
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static AppointmentArchive instance;
+
+    private final Properties meta = new Properties();
+    private boolean hotIncomplete; // the last loadHot() skipped rows it could not read, so the file holds more than memory
+
+    private AppointmentArchive() {
+        loadMeta();
+    }
+
+    public static synchronized AppointmentArchive getInstance() {
+        if (instance == null) {
+            instance = new AppointmentArchive();
+        }
+        return instance;
+    }
+
+    /** Start of the hot window; anything earlier belongs in the archive */
+    static LocalDateTime hotCutoff() {
+        return LocalDate.now().minusDays(HOT_PAST_DAYS).atStartOfDay();
+    }
+
+    // ****************** HOT FILE ******************
+
+    /**
+     * Read Appointments.csv and return the hot appointments. Before the rows
+     * are split, replay may change them (they are keyed by appointment ID, in
+     * file order), e.g. to apply logged changes made after the file was
+     * written. Rows older than the cutoff are then moved into their monthly
+     * partitions and the hot file is rewritten without them. A row that fails
+     * to parse is skipped (its ID, if readable, is not reissued) and the rest
+     * still load, but then nothing is moved, and writeHot() refuses to replace
+     * the file until a later load reads it completely, so a bad row is never
+     * dropped from it.
+     */
+    public synchronized List<Appointment> loadHot(Consumer<Map<Integer, Appointment>> replay) {
+        Map<Integer, Appointment> rows = new LinkedHashMap<>();
+        boolean parsed = true;
+
+        List<Appointment> snapshot = BinarySnapshot.read(SNAPSHOT, APPOINTMENTS_CSV_FILE,
+                AppointmentArchive::readSnapshotRow);
+        if (snapshot != null) {
+            for (Appointment appointment : snapshot) {
+                rows.put(appointment.getAppointmentId(), appointment);
+            }
+        } else {
+            try (CsvReader reader = new CsvReader(APPOINTMENTS_CSV_FILE)) {
+                while (reader.nextRow()) {
+                    // Skip header (empty lines are skipped by the reader)
+                    if (reader.rowStartsWith("appointmentid")) {
+                        continue;
+                    }
+                    try {
+                        Appointment appointment = read(reader);
+                        if (appointment == null) {
+                            continue; // Expecting 6 columns
+                        }
+                        rows.put(appointment.getAppointmentId(), appointment);
+                    } catch (NumberFormatException | DateTimeParseException e) {
+                        System.out.println("Error loading appointments: " + e.getMessage());
+                        parsed = false;
+                        reserveId(reader);
+                    }
+                }
+            } catch (FileNotFoundException e) {
+                System.out.println("Appointments.csv not found. No appointments loaded.");
+            } catch (IOException e) {
+                System.out.println("Error loading appointments: " + e.getMessage());
+                parsed = false;
+            }
+            if (parsed) {
+                BinarySnapshot.write(SNAPSHOT, APPOINTMENTS_CSV_FILE, rows.values(),
+                        AppointmentArchive::writeSnapshotRow);
+            } else {
+                System.out.println("Appointments.csv will not be rewritten until it loads without errors.");
+            }
+        }
+        hotIncomplete = !parsed;
+        replay.accept(rows);
+
+        List<Appointment> hot = new ArrayList<>();
+        List<Appointment> cold = new ArrayList<>();
+        LocalDateTime cutoff = hotCutoff();
+        for (Appointment appointment : rows.values()) {
+            (parsed && appointment.getDateTime().isBefore(cutoff) ? cold : hot).add(appointment);
+        }
+        if (!cold.isEmpty() && archive(cold)) {
+            // If the file cannot be replaced the archived rows also stay in it; the next load
+            // finds them cold again and archive() skips the IDs a partition already holds.
+            writeHot(hot);
+        }
+        Appointment.ensureIdCounterAtLeast(getMaxArchivedId());
+        return hot;
+    }
+
+    /**
+     * Rewrite Appointments.csv with the given (hot) appointments. The rows go
+     * to a temporary file that is synced and then renamed over the old one,
+     * so a crash leaves either the old file or the new one, never a partial
+     * one. Returns false if the file could not be replaced, or was not
+     * because the last load did not read all of it (see isHotComplete()).
+     */
+    public synchronized boolean writeHot(Iterable<Appointment> appointments) {
+        if (hotIncomplete)
+            return false; // the rows that failed to load exist only in the file
+        File target = new File(APPOINTMENTS_CSV_FILE);
+        File temp = new File(APPOINTMENTS_TEMP_FILE);
+        try (FileOutputStream out = new FileOutputStream(temp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Appointment appointment : appointments) {
+                writer.write(toCsvRow(appointment));
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("Error saving appointments: " + e.getMessage());
+            return false;
+        }
+
+        // Replace old file with updated file
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Failed to replace Appointments.csv: " + e.getMessage());
+            return false;
+        }
+        BinarySnapshot.write(SNAPSHOT, APPOINTMENTS_CSV_FILE, appointments, AppointmentArchive::writeSnapshotRow);
+        return true;
+    }
+
+    /** False while Appointments.csv holds rows the last load could not read */
+    public synchronized boolean isHotComplete() {
+        return !hotIncomplete;
+    }
+
+    // ****************** ARCHIVE ******************
+
+    /** Append past appointments to their monthly partitions; false if nothing could be written */
+    public synchronized boolean archive(List<Appointment> past) {
+        Map<YearMonth, List<Appointment>> byMonth = new TreeMap<>();
+        for (Appointment appointment : past) {
+            byMonth.computeIfAbsent(YearMonth.from(appointment.getDateTime()), m -> new ArrayList<>())
+                    .add(appointment);
+        }
+
+        File dir = new File(ARCHIVE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.out.println("Error creating archive folder " + ARCHIVE_DIR);
+            return false;
+        }
+
+        for (Map.Entry<YearMonth, List<Appointment>> entry : byMonth.entrySet()) {
+            YearMonth month = entry.getKey();
+            File file = partitionFile(month);
+            boolean existed = file.exists();
+            Set<Integer> present = existed ? idsIn(file) : new HashSet<>(); // guards against re-archiving after a crash
+
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+                if (!existed) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                }
+                for (Appointment appointment : entry.getValue()) {
+                    if (present.add(appointment.getAppointmentId())) {
+                        writer.write(toCsvRow(appointment));
+                        writer.newLine();
+                        recordId(month, appointment.getAppointmentId());
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error writing archive " + file.getName() + ": " + e.getMessage());
+                saveMeta();
+                return false;
+            }
+        }
+        saveMeta();
+        return true;
+    }
+
+    /** Highest appointment ID stored in the archive (0 if empty) */
+    public synchronized int getMaxArchivedId() {
+        return Integer.parseInt(meta.getProperty(MAX_ID_KEY, "0"));
+    }
+
+    /** Months that have a partition, oldest first */
+    public synchronized List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String key : meta.stringPropertyNames()) {
+            if (!key.equals(MAX_ID_KEY)) {
+                months.add(YearMonth.parse(key));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /** Archived appointment with this ID, reading only partitions whose ID range covers it */
+    public synchronized Appointment findById(int appointmentId) {
+        for (YearMonth month : months()) {
+            if (!covers(month, appointmentId)) {
+                continue;
+            }
+            Appointment[] match = { null };
+            scan(month, appointment -> {
+                if (appointment.getAppointmentId() == appointmentId)
+                    match[0] = appointment;
+            });
+            if (match[0] != null) {
+                return match[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Delete an archived appointment by rewriting its partition without that
+     * row. The other lines are copied as they are, malformed ones included,
+     * to a temporary file that is synced and renamed over the partition. The
+     * month's ID range in archive.meta is narrowed to the IDs left (the month
+     * is dropped from it when none are), and a partition left with no rows is
+     * removed; maxId is kept, so the ID is never reissued. False if no
+     * partition holds the ID or it could not be rewritten.
+     */
+    public synchronized boolean delete(int appointmentId) {
+        for (YearMonth month : months()) {
+            if (covers(month, appointmentId) && deleteFrom(month, appointmentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean deleteFrom(YearMonth month, int appointmentId) {
+        File file = partitionFile(month);
+        File temp = new File(file.getPath() + ".tmp");
+        boolean found = false;
+        int rows = 0;
+        int low = Integer.MAX_VALUE, high = Integer.MIN_VALUE;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file));
+             FileOutputStream out = new FileOutputStream(temp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean row = !line.trim().isEmpty() && !line.regionMatches(true, 0, "appointmentid", 0, 13);
+                Integer id = row ? idOf(line) : null;
+                if (id != null && id == appointmentId) {
+                    found = true;
+                    continue;
+                }
+                if (row) {
+                    rows++;
+                }
+                if (id != null) {
+                    low = Math.min(low, id);
+                    high = Math.max(high, id);
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (FileNotFoundException e) {
+            temp.delete();
+            return false; // partition listed in the meta file but gone
+        } catch (IOException e) {
+            System.out.println("Error rewriting archive " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+        if (!found) {
+            temp.delete();
+            return false;
+        }
+
+        try {
+            if (rows == 0) {
+                Files.delete(file.toPath());
+                Files.delete(temp.toPath());
+            } else {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to replace archive " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+
+        if (low > high) {
+            meta.remove(month.toString()); // no readable appointments left to look up
+        } else {
+            meta.setProperty(month.toString(), low + "-" + high);
+        }
+        saveMeta();
+        return true;
+    }
+
+    /** A patient's archived appointments, oldest first; partitions are streamed, not cached */
+    public synchronized List<Appointment> findByPatient(int patientId) {
+        List<Appointment> matches = new ArrayList<>();
+        for (YearMonth month : months()) {
+            List<Appointment> inMonth = new ArrayList<>();
+            scan(month, appointment -> {
+                if (appointment.getPatientId() == patientId)
+                    inMonth.add(appointment);
+            });
+            inMonth.sort((a, b) -> a.getDateTime().compareTo(b.getDateTime()));
+            matches.addAll(inMonth);
+        }
+        return matches;
+    }
+
+    /** Visit every appointment archived for the month */
+    public synchronized void scan(YearMonth month, Consumer<Appointment> action) {
+        File file = partitionFile(month);
+        try (CsvReader reader = new CsvReader(file.getPath())) {
+            while (reader.nextRow()) {
+                if (reader.rowStartsWith("appointmentid")) {
+                    continue;
+                }
+                Appointment appointment = read(reader);
+                if (appointment != null) {
+                    action.accept(appointment);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            // month listed in the meta file but its partition is gone: nothing to show
+        } catch (IOException | NumberFormatException | DateTimeParseException e) {
+            System.out.println("Error reading archive " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    // ****************** HELPERS ******************
+
+    private static File partitionFile(YearMonth month) {
+        return new File(ARCHIVE_DIR, "appointments-" + month + ".csv");
+    }
+
+    // IDs already in a partition, read without building Appointment objects
+    private static Set<Integer> idsIn(File file) {
+        Set<Integer> ids = new HashSet<>();
+        try (CsvReader reader = new CsvReader(file.getPath())) {
+            while (reader.nextRow()) {
+                if (reader.fieldCount() > 1 && !reader.rowStartsWith("appointmentid")) {
+                    try {
+                        ids.add(reader.nextInt());
+                    } catch (NumberFormatException e) {
+                        // malformed row, ignore
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading archive " + file.getName() + ": " + e.getMessage());
+        }
+        return ids;
+    }
+
+    // ID in the first column of a row; null if it is malformed (such rows are kept as they are)
+    private static Integer idOf(String line) {
+        try {
+            return Integer.parseInt(line.split(",", 2)[0].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Whether the month's recorded ID range includes id
+    private boolean covers(YearMonth month, int id) {
+        String[] range = meta.getProperty(month.toString()).split("-");
+        return id >= Integer.parseInt(range[0]) && id <= Integer.parseInt(range[1]);
+    }
+
+    private void recordId(YearMonth month, int id) {
+        String key = month.toString();
+        String range = meta.getProperty(key);
+        if (range == null) {
+            meta.setProperty(key, id + "-" + id);
+        } else {
+            String[] bounds = range.split("-");
+            int low = Math.min(Integer.parseInt(bounds[0]), id);
+            int high = Math.max(Integer.parseInt(bounds[1]), id);
+            meta.setProperty(key, low + "-" + high);
+        }
+        if (id > getMaxArchivedId()) {
+            meta.setProperty(MAX_ID_KEY, String.valueOf(id));
+        }
+    }
+
+    private void loadMeta() {
+        try (FileReader reader = new FileReader(META_FILE)) {
+            meta.load(reader);
+        } catch (FileNotFoundException e) {
+            // no archive yet
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error reading " + META_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void saveMeta() {
+        try (FileWriter writer = new FileWriter(META_FILE)) {
+            meta.store(writer, "Appointment archive: maxId and the ID range held by each monthly partition");
+        } catch (IOException e) {
+            System.out.println("Error writing " + META_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /** The reader's current row; null if it has fewer than 6 columns */
+    static Appointment read(CsvReader row) {
+        if (row.fieldCount() < 6) {
+            return null;
+        }
+        int appointmentId = row.nextInt();
+        int patientId = row.nextInt();
+        String patientName = row.nextString();
+        String reason = row.nextString();
+        LocalDateTime dateTime = row.nextDateTime();
+        int doctorId = row.nextInt();
+        return new Appointment(appointmentId, patientId, patientName, reason, dateTime, doctorId);
+    }
+
+    // Keep a row that failed to parse from having its ID handed to a new appointment
+    private static void reserveId(CsvReader row) {
+        row.rewind();
+        try {
+            Appointment.ensureIdCounterAtLeast(row.nextInt());
+        } catch (NumberFormatException e) {
+            // the ID itself is unreadable, so no valid ID is taken by this row
+        }
+    }
+
+    /** One row given as text (log records) */
+    static Appointment parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 6) {
+            return null;
+        }
+        int appointmentId = Integer.parseInt(fields[0].trim());
+        int patientId = Integer.parseInt(fields[1].trim());
+        String patientName = fields[2].trim();
+        String reason = fields[3].trim();
+        LocalDateTime dateTime = LocalDateTime.parse(fields[4].trim(), FORMATTER);
+        int doctorId = Integer.parseInt(fields[5].trim());
+        return new Appointment(appointmentId, patientId, patientName, reason, dateTime, doctorId);
+    }
+
+    private static void writeSnapshotRow(BinarySnapshot.Output out, Appointment appointment) throws IOException {
+        out.writeInt(appointment.getAppointmentId());
+        out.writeInt(appointment.getPatientId());
+        out.writeString(appointment.getPatientName());
+        out.writeString(appointment.getReason());
+        out.writeDateTime(appointment.getDateTime());
+        out.writeInt(appointment.getDoctorId());
+    }
+
+    private static Appointment readSnapshotRow(BinarySnapshot.Input in) {
+        int appointmentId = in.readInt();
+        int patientId = in.readInt();
+        String patientName = in.readString();
+        String reason = in.readString();
+        LocalDateTime dateTime = in.readDateTime();
+        return new Appointment(appointmentId, patientId, patientName, reason, dateTime, in.readInt());
+    }
+
+    static String toCsvRow(Appointment appointment) {
+        return appointment.getAppointmentId() + "," +
+                appointment.getPatientId() + "," +
+                appointment.getPatientName() + "," +
+                appointment.getReason() + "," +
+                appointment.getDateTime().format(FORMATTER) + "," +
+                appointment.getDoctorId();
+    }
+}
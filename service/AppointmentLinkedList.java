@@ -0,0 +1,225 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Appointment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+class AppointmentLinkedList implements Iterable<Appointment> {
+
+    private class Node {
+        Appointment data;
+        Node next;
+        Node prev;
+        int patientKey; // patient ID, doctor ID and date-time this node is filed under
+        int doctorKey;
+        LocalDateTime timeKey;
+
+        Node(Appointment data) {
+            this.data = data;
+            this.next = null;
+            this.prev = null;
+        }
+    }
+
+    // Orders one patient's or doctor's appointments by date-time, appointment ID breaking ties
+    private static final Comparator<Node> BY_TIME = Comparator
+            .comparing((Node n) -> n.timeKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(n -> n.data.getAppointmentId());
+
+    private Node head;
+    private Node tail;
+    private final IntHashMap<Node> nodesById = new IntHashMap<>(); // primary-key index
+    private final IntHashMap<TreeSet<Node>> byPatient = new IntHashMap<>(); // patient ID -> appointments by time
+    private final IntHashMap<TreeSet<Node>> byDoctor = new IntHashMap<>(); // doctor ID -> appointments by time
+    private final SlotCalendar calendar = new SlotCalendar(); // doctor/day -> 15-minute occupancy bitmap
+
+    // Enqueue: Add to rear
+    public void enqueue(Appointment appointment) {
+        Node newNode = new Node(appointment);
+        nodesById.put(appointment.getAppointmentId(), newNode);
+        index(newNode);
+        if (tail == null) {
+            head = tail = newNode;
+            return;
+        }
+        tail.next = newNode;
+        newNode.prev = tail;
+        tail = newNode;
+    }
+
+    // Dequeue: Remove from front
+    public Appointment dequeue() {
+        if (head == null) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        Appointment result = head.data;
+        if (nodesById.get(result.getAppointmentId()) == head) {
+            nodesById.remove(result.getAppointmentId());
+        }
+        unindex(head);
+        head = head.next;
+        if (head == null) {
+            tail = null; // reset tail when queue becomes empty
+        } else {
+            head.prev = null;
+        }
+        return result;
+    }
+
+    // O(1) removal by appointment ID: find the node through the index and unlink it in place
+    public Appointment remove(int appointmentId) {
+        Node node = nodesById.remove(appointmentId);
+        if (node == null)
+            return null;
+        unindex(node);
+
+        if (node.prev == null)
+            head = node.next;
+        else
+            node.prev.next = node.next;
+
+        if (node.next == null)
+            tail = node.prev;
+        else
+            node.next.prev = node.prev;
+
+        node.prev = node.next = null;
+        return node.data;
+    }
+
+    // Peek at front (next appointment)
+    public Appointment peek() {
+        if (head == null)
+            return null;
+        return head.data;
+    }
+
+    // Check if empty
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    // O(1) lookup by appointment ID, or null
+    public Appointment findById(int appointmentId) {
+        Node node = nodesById.get(appointmentId);
+        return node == null ? null : node.data;
+    }
+
+    // A patient's appointments, earliest first
+    public List<Appointment> findByPatient(int patientId) {
+        return listOf(byPatient.get(patientId));
+    }
+
+    // A doctor's schedule, earliest first
+    public List<Appointment> findByDoctor(int doctorId) {
+        return listOf(byDoctor.get(doctorId));
+    }
+
+    private static List<Appointment> listOf(TreeSet<Node> nodes) {
+        List<Appointment> result = new ArrayList<>(nodes == null ? 0 : nodes.size());
+        if (nodes != null) {
+            for (Node node : nodes)
+                result.add(node.data);
+        }
+        return result;
+    }
+
+    // True if the doctor has no booking overlapping the slot; excludeAppointmentId is ignored (-1 for none)
+    public boolean isSlotFree(int doctorId, LocalDateTime start, int excludeAppointmentId) {
+        Node moving = nodesById.get(excludeAppointmentId);
+        LocalDateTime except = moving != null && moving.doctorKey == doctorId ? moving.timeKey : null;
+        return calendar.isFree(doctorId, start, SlotCalendar.SLOT_MINUTES, except);
+    }
+
+    // Occupancy bitmaps of the loaded appointments, for free-slot and free-doctor queries
+    public SlotCalendar calendar() {
+        return calendar;
+    }
+
+    // Edit an appointment in place; goes through here so the time-ordered index is re-filed
+    public void update(Appointment appointment, int doctorId, LocalDateTime dateTime, String reason) {
+        Node node = nodesById.get(appointment.getAppointmentId());
+        if (node != null && node.data == appointment)
+            unindex(node);
+
+        appointment.setDoctorId(doctorId);
+        appointment.setAppointmentDate(dateTime);
+        appointment.setReason(reason);
+
+        if (node != null && node.data == appointment)
+            index(node);
+    }
+
+    private void index(Node node) {
+        node.patientKey = node.data.getPatientId();
+        node.doctorKey = node.data.getDoctorId();
+        node.timeKey = node.data.getDateTime();
+        file(byPatient, node.patientKey, node);
+        file(byDoctor, node.doctorKey, node);
+        calendar.book(node.doctorKey, node.timeKey, SlotCalendar.SLOT_MINUTES);
+    }
+
+    private void unindex(Node node) {
+        unfile(byPatient, node.patientKey, node);
+        unfile(byDoctor, node.doctorKey, node);
+        calendar.release(node.doctorKey, node.timeKey, SlotCalendar.SLOT_MINUTES);
+    }
+
+    private static void file(IntHashMap<TreeSet<Node>> index, int key, Node node) {
+        TreeSet<Node> nodes = index.get(key);
+        if (nodes == null) {
+            nodes = new TreeSet<>(BY_TIME);
+            index.put(key, nodes);
+        }
+        nodes.add(node);
+    }
+
+    private static void unfile(IntHashMap<TreeSet<Node>> index, int key, Node node) {
+        TreeSet<Node> nodes = index.get(key);
+        if (nodes != null && nodes.remove(node) && nodes.isEmpty())
+            index.remove(key);
+    }
+
+    // Print all appointments
+    public void printAll() {
+        Node current = head;
+        while (current != null) {
+            System.out.println(current.data); // Ensure Appointment overrides toString()
+            current = current.next;
+        }
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        nodesById.clear();
+        byPatient.clear();
+        byDoctor.clear();
+        calendar.clear();
+    }
+
+    // Iterator to loop through appointments
+    public Iterator<Appointment> iterator() {
+        return new Iterator<>() {
+            private Node current = head;
+
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            public Appointment next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Appointment data = current.data;
+                current = current.next;
+                return data;
+            }
+        };
+    }
+}
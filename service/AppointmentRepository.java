@@ -0,0 +1,239 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Appointment;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * AppointmentRepository.java
+ *
+ * The one in-memory copy of the upcoming appointments, shared by
+ * PatientService and DoctorService. Appointments.csv is parsed once per
+ * process (through AppointmentArchive, so only the hot window is loaded),
+ * and every portal reads and writes the same indexed AppointmentLinkedList,
+ * so a booking made at the front desk is on the doctor's schedule at once.
+ *
+ * Changes are announced to registered listeners after they are applied.
+ *
+ * Every write is also appended to data/Appointments.wal (see AppendLog) as an
+ * INSERT, UPDATE or DELETE record, so the cost of a change no longer depends
+ * on how many appointments there are. Callers make their changes and then
+ * call save(), which fsyncs the log once for the whole group, e.g. one sync
+ * for a batch of bookings. Appointments.csv is now a checkpoint: it is
+ * rewritten (atomically) only every hospital.walCheckpointEvery logged
+ * changes (default 500) and after recovery, and the log is emptied once the
+ * CSV holds everything in it. On load the log is replayed over the CSV, so
+ * changes made after the last checkpoint survive a crash. Records carry whole
+ * rows, which makes replaying a record the CSV already contains harmless. A
+ * checkpoint drops the DELETE records, so its marker in the log carries the
+ * appointment ID high-water mark (maxId=N), and loading seeds new IDs from
+ * it; a cancelled appointment's ID is not handed out again. If
+ * the CSV has a row that cannot be read, no checkpoint is taken until it
+ * loads cleanly again: the log keeps every change, and the rows after the bad
+ * one are never overwritten with the partial set held in memory.
+ */
+class AppointmentRepository implements Iterable<Appointment> {
+
+    /** What happened to the appointment passed to a listener */
+    enum Change {
+        ADDED, UPDATED, REMOVED, RELOADED
+    }
+
+    /**
+     * Told about every change; appointment is null for RELOADED. For UPDATED,
+     * previousDoctorId is the doctor the appointment was with before the edit
+     * (its current doctor unless it was moved); it is -1 for the other changes.
+     */
+    interface Listener {
+        void appointmentChanged(Change change, Appointment appointment, int previousDoctorId);
+    }
+
+    static final String APPOINTMENTS_LOG_FILE = "data/Appointments.wal";
+    private static final String INSERT = "INSERT";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String MAX_ID_KEY = "maxId=";
+    private static final int CHECKPOINT_EVERY = Math.max(1, Integer.getInteger("hospital.walCheckpointEvery", 500));
+    private static final int SYNC_GROUP = Integer.getInteger("hospital.walSyncGroup", 64);
+
+    private static AppointmentRepository instance;
+
+    private final AppointmentLinkedList appointments = new AppointmentLinkedList();
+    private final AppointmentArchive archive = AppointmentArchive.getInstance();
+    private final AppendLog log = new AppendLog(APPOINTMENTS_LOG_FILE, SYNC_GROUP);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private AppointmentRepository() {
+    }
+
+    /** Shared repository; loads Appointments.csv the first time it is requested */
+    public static synchronized AppointmentRepository getInstance() {
+        if (instance == null) {
+            instance = new AppointmentRepository();
+            instance.load();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(Change change, Appointment appointment) {
+        fire(change, appointment, -1);
+    }
+
+    private void fire(Change change, Appointment appointment, int previousDoctorId) {
+        for (Listener listener : listeners) {
+            listener.appointmentChanged(change, appointment, previousDoctorId);
+        }
+    }
+
+    // ****************** LOADING / SAVING ******************
+
+    /** (Re)load the hot window from disk and replay the log over it, replacing what is in memory */
+    public synchronized void load() {
+        appointments.clear();
+        List<Appointment> hot = archive.loadHot(rows -> log.recover(record -> replay(record, rows)));
+        for (Appointment appointment : hot) {
+            appointments.enqueue(appointment);
+        }
+        Appointment.ensureIdCounterAtLeast(checkpointMaxId()); // IDs whose DELETE records were checkpointed away
+        if (log.size() > 0 && archive.isHotComplete()) {
+            checkpoint(); // fold the recovered changes into Appointments.csv
+        }
+        fire(Change.RELOADED, null);
+    }
+
+    /** Make the changes so far durable; writes a checkpoint when the log has grown long enough */
+    public synchronized void save() {
+        log.sync();
+        if (log.size() >= CHECKPOINT_EVERY && archive.isHotComplete()) {
+            checkpoint();
+        }
+    }
+
+    /** Export the hot window to Appointments.csv and start a new log holding only the ID high-water mark */
+    public synchronized void checkpoint() {
+        log.sync();
+        if (archive.writeHot(appointments)) {
+            log.reset(MAX_ID_KEY + Appointment.getIdHighWater());
+        }
+    }
+
+    // maxId recorded by the last checkpoint, 0 if there is none
+    private int checkpointMaxId() {
+        String checkpoint = log.checkpoint();
+        if (!checkpoint.startsWith(MAX_ID_KEY))
+            return 0;
+        try {
+            return Integer.parseInt(checkpoint.substring(MAX_ID_KEY.length()).trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring malformed appointment log checkpoint: " + checkpoint);
+            return 0;
+        }
+    }
+
+    // Apply one logged change to the rows read from the last checkpoint
+    private static void replay(AppendLog.Record record, Map<Integer, Appointment> rows) {
+        try {
+            switch (record.op) {
+                case INSERT:
+                case UPDATE:
+                    Appointment appointment = AppointmentArchive.parse(record.payload);
+                    if (appointment != null) {
+                        rows.put(appointment.getAppointmentId(), appointment);
+                    }
+                    break;
+                case DELETE:
+                    int id = Integer.parseInt(record.payload.trim());
+                    rows.remove(id);
+                    Appointment.ensureIdCounterAtLeast(id); // a cancelled appointment's ID is never reused
+                    break;
+                default:
+                    System.out.println("Skipping unknown appointment log record " + record.seq + ".");
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("Error replaying appointment log record " + record.seq + ": " + e.getMessage());
+        }
+    }
+
+    // ****************** WRITES ******************
+
+    public void add(Appointment appointment) {
+        synchronized (this) {
+            appointments.enqueue(appointment);
+            log.append(INSERT, AppointmentArchive.toCsvRow(appointment));
+        }
+        fire(Change.ADDED, appointment);
+    }
+
+    /** Remove by appointment ID; returns the removed appointment or null */
+    public Appointment remove(int appointmentId) {
+        Appointment removed;
+        synchronized (this) {
+            removed = appointments.remove(appointmentId);
+            if (removed != null) {
+                log.append(DELETE, String.valueOf(appointmentId));
+            }
+        }
+        if (removed != null) {
+            fire(Change.REMOVED, removed);
+        }
+        return removed;
+    }
+
+    /** Edit an appointment so every index is re-filed */
+    public void update(Appointment appointment, int doctorId, LocalDateTime dateTime, String reason) {
+        int previousDoctorId;
+        synchronized (this) {
+            previousDoctorId = appointment.getDoctorId();
+            appointments.update(appointment, doctorId, dateTime, reason);
+            log.append(UPDATE, AppointmentArchive.toCsvRow(appointment));
+        }
+        fire(Change.UPDATED, appointment, previousDoctorId);
+    }
+
+    // ****************** LOOKUPS ******************
+
+    public Appointment findById(int appointmentId) {
+        return appointments.findById(appointmentId);
+    }
+
+    public List<Appointment> findByPatient(int patientId) {
+        return appointments.findByPatient(patientId);
+    }
+
+    public List<Appointment> findByDoctor(int doctorId) {
+        return appointments.findByDoctor(doctorId);
+    }
+
+    public boolean isSlotFree(int doctorId, LocalDateTime start, int excludeAppointmentId) {
+        return appointments.isSlotFree(doctorId, start, excludeAppointmentId);
+    }
+
+    public SlotCalendar calendar() {
+        return appointments.calendar();
+    }
+
+    public boolean isEmpty() {
+        return appointments.isEmpty();
+    }
+
+    public void printAll() {
+        appointments.printAll();
+    }
+
+    public Iterator<Appointment> iterator() {
+        return appointments.iterator();
+    }
+}
@@ -0,0 +1,285 @@
+package HospitalManagement.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * BinarySnapshot.java
+ *
+ * Binary copy of a CSV data file under data/snapshot (<dataset>.bin), so a
+ * start-up can bulk-read rows instead of splitting and parsing text. The CSV
+ * stays the import/export format and the source of truth: the header of a
+ * snapshot records the length and modification time of the CSV it was made
+ * from, and a snapshot whose CSV has changed since (edited by hand, saved by
+ * the program) is ignored and rebuilt after the CSV has been parsed.
+ *
+ * Layout, big-endian:
+ *
+ * magic, version, dataset name, CSV length, CSV mtime, row count, rows
+ *
+ * Rows use fixed-width numerics (int, double, one byte per boolean),
+ * length-prefixed UTF-8 strings (length -1 for null) and timestamps as int
+ * minutes since the epoch. The file is read in 64 KB bulk reads and decoded
+ * straight from that buffer, without a String per line or field, and each
+ * row is handed to the caller as soon as it is decoded, so loading a large
+ * data set never holds the whole file or a list of every row. Changing
+ * any dataset's row layout means bumping VERSION, which makes every older
+ * snapshot fall back to its CSV once.
+ */
+final class BinarySnapshot {
+    static final String SNAPSHOT_DIR = "data/snapshot";
+    static final int VERSION = 1;
+    private static final int MAGIC = 0x484D5331; // "HMS1"
+    private static final int CHUNK = 1 << 16; // bytes read from the file at a time
+
+    /** Encodes one row */
+    interface RowWriter<T> {
+        void write(Output out, T row) throws IOException;
+    }
+
+    /** Decodes one row, reading its fields in the order they were written */
+    interface RowReader<T> {
+        T read(Input in);
+    }
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Rows of the snapshot made from csvPath, or null if there is none, it
+     * is from another version, or the CSV has changed since it was written.
+     * For small data sets; large ones should stream through the sink form.
+     */
+    static <T> List<T> read(String dataset, String csvPath, RowReader<T> reader) {
+        List<T> rows = new ArrayList<>();
+        return read(dataset, csvPath, reader, rows::add) ? rows : null;
+    }
+
+    /**
+     * Decode the snapshot made from csvPath, handing each row to sink as it
+     * is decoded. False if there is none, it is from another version, or the
+     * CSV has changed since it was written; also false if the file turns out
+     * to be damaged part-way, in which case sink has already been given some
+     * rows and the caller must discard them.
+     */
+    static <T> boolean read(String dataset, String csvPath, RowReader<T> reader, Consumer<T> sink) {
+        File csv = new File(csvPath);
+        File file = fileFor(dataset);
+        if (!csv.exists() || !file.exists())
+            return false;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !dataset.equals(in.readString())
+                    || in.readLong() != csv.length() || in.readLong() != csv.lastModified())
+                return false;
+
+            int count = in.readInt();
+            if (count < 0 || count > in.remaining())
+                throw new BufferUnderflowException(); // corrupt count: every row takes at least one byte
+            for (int i = 0; i < count; i++) {
+                sink.accept(reader.read(in));
+            }
+            return true;
+        } catch (IOException | UncheckedIOException | BufferUnderflowException | IllegalArgumentException e) {
+            System.out.println("Ignoring snapshot " + file.getName() + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Write the snapshot for csvPath, which must already hold exactly these
+     * rows. The file is written aside and renamed into place.
+     */
+    static <T> void write(String dataset, String csvPath, Iterable<T> rows, RowWriter<T> writer) {
+        File csv = new File(csvPath);
+        File file = fileFor(dataset);
+        File temp = new File(file.getPath() + ".tmp");
+        file.getParentFile().mkdirs();
+
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeString(dataset);
+            out.writeLong(csv.length());
+            out.writeLong(csv.lastModified());
+            long countAt = out.size();
+            out.writeInt(0); // row count, filled in below
+
+            int count = 0;
+            for (T row : rows) {
+                writer.write(out, row);
+                count++;
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, count), countAt);
+            channel.force(true); // never rename a half-written snapshot into place
+        } catch (IOException e) {
+            System.out.println("Error writing snapshot " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error replacing snapshot " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static File fileFor(String dataset) {
+        return new File(SNAPSHOT_DIR, dataset + ".bin");
+    }
+
+    // ****************** ENCODING ******************
+
+    /** Field encoder handed to a RowWriter */
+    static final class Output {
+        private final DataOutputStream out;
+
+        private Output(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            out.writeDouble(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        /** Minute precision, which is all the CSV files hold */
+        void writeDateTime(LocalDateTime value) throws IOException {
+            out.writeInt((int) (value.toEpochSecond(ZoneOffset.UTC) / 60));
+        }
+
+        private long size() {
+            return out.size();
+        }
+
+        private void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Field decoder handed to a RowReader. Reads the file a chunk at a time;
+     * running off the end of the file throws BufferUnderflowException and a
+     * read error UncheckedIOException, so RowReaders need no throws clause.
+     */
+    static final class Input {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(CHUNK).flip(); // decoded from; starts empty
+        private long unread; // bytes of the file not yet read into buffer
+
+        private Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.unread = channel.size();
+        }
+
+        int readInt() {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long readLong() {
+            ensure(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        double readDouble() {
+            ensure(Double.BYTES);
+            return buffer.getDouble();
+        }
+
+        boolean readBoolean() {
+            ensure(1);
+            return buffer.get() != 0;
+        }
+
+        String readString() {
+            int length = readInt();
+            if (length < 0)
+                return null;
+            if (length > remaining())
+                throw new BufferUnderflowException(); // corrupt length
+            ensure(length);
+            int at = buffer.position();
+            buffer.position(at + length);
+            return new String(buffer.array(), at, length, StandardCharsets.UTF_8);
+        }
+
+        LocalDateTime readDateTime() {
+            ensure(Integer.BYTES);
+            return LocalDateTime.ofEpochSecond(buffer.getInt() * 60L, 0, ZoneOffset.UTC);
+        }
+
+        // Bytes left in the file, buffered or not
+        private long remaining() {
+            return buffer.remaining() + unread;
+        }
+
+        // Have at least count bytes buffered: keep the unread ones and read more behind them
+        private void ensure(int count) {
+            if (buffer.remaining() >= count)
+                return;
+            if (count > remaining())
+                throw new BufferUnderflowException(); // truncated file
+            if (count > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(count).put(buffer); // a string longer than one chunk
+            } else {
+                buffer.compact();
+            }
+            try {
+                while (buffer.position() < count) {
+                    int read = channel.read(buffer);
+                    if (read < 0)
+                        throw new BufferUnderflowException();
+                    unread -= read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+        }
+    }
+}
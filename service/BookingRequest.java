@@ -0,0 +1,44 @@
+package HospitalManagement.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * BookingRequest.java
+ *
+ * One appointment to be booked as part of a batch (camp days, bulk
+ * follow-ups). See PatientService.bookBatch.
+ */
+class BookingRequest {
+    private final int patientId;
+    private final int doctorId;
+    private final LocalDateTime dateTime;
+    private final String reason;
+
+    BookingRequest(int patientId, int doctorId, LocalDateTime dateTime, String reason) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.dateTime = dateTime;
+        this.reason = reason;
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public int getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "Patient " + patientId + " with Doctor " + doctorId + " at " + dateTime;
+    }
+}
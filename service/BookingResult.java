@@ -0,0 +1,50 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Appointment;
+
+/**
+ * BookingResult.java
+ *
+ * Outcome of one BookingRequest in a batch: the booked appointment, or the
+ * reason it was rejected.
+ */
+class BookingResult {
+    private final BookingRequest request;
+    private final Appointment appointment; // null if rejected
+    private final String message;
+
+    private BookingResult(BookingRequest request, Appointment appointment, String message) {
+        this.request = request;
+        this.appointment = appointment;
+        this.message = message;
+    }
+
+    static BookingResult booked(BookingRequest request, Appointment appointment) {
+        return new BookingResult(request, appointment, "Booked as appointment " + appointment.getAppointmentId());
+    }
+
+    static BookingResult rejected(BookingRequest request, String reason) {
+        return new BookingResult(request, null, reason);
+    }
+
+    public boolean isBooked() {
+        return appointment != null;
+    }
+
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return (isBooked() ? "OK      " : "REJECTED") + " " + request + ": " + message;
+    }
+}
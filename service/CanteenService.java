@@ -6,10 +6,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 
@@ -18,6 +16,8 @@ public class CanteenService {
     private Scanner scanner = new Scanner(System.in);
     // CSV File Path
     private final String MENU_FILE = "data/Menu.csv";
+    private static final String SNAPSHOT = "menu";
+    private final StringDictionary dictionary = StringDictionary.SHARED; // category keys kept once
 
     public CanteenService() {
         initializeMenu();
@@ -39,24 +39,51 @@ public class CanteenService {
         // return;
         // }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(MENU_FILE))) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", 3);
-                if (parts.length == 3) {
-                    String category = parts[0].toLowerCase(); 
-                    String name = parts[1];
-                    double price = Double.parseDouble(parts[2]);
-                    menuByCategory.putIfAbsent(category, new ArrayList<>());
-                    menuByCategory.get(category).add(new CanteenItem(name, price));
+        // (category, item) rows, from the binary snapshot while it matches Menu.csv
+        List<Map.Entry<String, CanteenItem>> rows = BinarySnapshot.read(SNAPSHOT, MENU_FILE, this::readSnapshotRow);
+        if (rows == null) {
+            rows = new ArrayList<>();
+            if (readMenuCsv(rows)) {
+                BinarySnapshot.write(SNAPSHOT, MENU_FILE, rows, CanteenService::writeSnapshotRow);
+            }
+        }
+        for (Map.Entry<String, CanteenItem> row : rows) {
+            menuByCategory.putIfAbsent(row.getKey(), new ArrayList<>());
+            menuByCategory.get(row.getKey()).add(row.getValue());
+        }
+    }
+
+    // Parse Menu.csv into rows; false unless the whole file was read
+    private boolean readMenuCsv(List<Map.Entry<String, CanteenItem>> rows) {
+        try (CsvReader row = new CsvReader(MENU_FILE)) {
+            row.nextRow(); // skip header
+            while (row.nextRow()) {
+                if (row.fieldCount() >= 3) {
+                    String category = dictionary.intern(row.nextString().toLowerCase());
+                    String name = row.nextString();
+                    double price = row.nextDouble();
+                    rows.add(Map.entry(category, new CanteenItem(name, price)));
                 }
             }
+            return true;
         } catch (IOException e) {
             System.out.println("Error reading menu CSV: " + e.getMessage());
+            return false;
         }
     }
 
+    private static void writeSnapshotRow(BinarySnapshot.Output out, Map.Entry<String, CanteenItem> row)
+            throws IOException {
+        out.writeString(row.getKey());
+        out.writeString(row.getValue().getName());
+        out.writeDouble(row.getValue().getPrice());
+    }
+
+    private Map.Entry<String, CanteenItem> readSnapshotRow(BinarySnapshot.Input in) {
+        String category = dictionary.intern(in.readString());
+        return Map.entry(category, new CanteenItem(in.readString(), in.readDouble()));
+    }
+
     private void addDefaultCategory(String category, CanteenItem... items) {
         menuByCategory.putIfAbsent(category, new ArrayList<>());
         for (CanteenItem item : items) {
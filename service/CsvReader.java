@@ -0,0 +1,308 @@
+package HospitalManagement.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * CsvReader.java
+ *
+ * Forward-only CSV reader for the load paths. The file is parsed at the byte
+ * level: nextInt(), nextBoolean(), nextDouble() and nextDateTime()
+ * (yyyy-MM-dd HH:mm) never build a String, and only the genuinely textual
+ * fields are materialized, by nextString(). Compared with readLine() and
+ * split() this saves one String per line and one per field, which is most of
+ * what the loaders used to allocate.
+ *
+ * The file is read with FileChannel.read in 64 KB chunks straight into one
+ * reused array, and the parsing runs over that array. The file is not memory
+ * mapped: a mapping outlives close() until it is garbage collected, and on
+ * Windows a mapped file cannot be truncated or replaced, which the save paths
+ * do right after loading. The comma positions of a row are recorded in the
+ * same pass that finds its end, so moving from field to field costs nothing.
+ *
+ * Usage mirrors the old loops: nextRow() moves to the next non-blank line
+ * (blank lines are skipped, as every loader did), then the fields are read
+ * left to right. Fields are trimmed like String.trim() and parse errors
+ * throw the same exceptions as Integer.parseInt, Double.parseDouble and
+ * LocalDateTime.parse, so existing catch blocks keep working. Quoted fields
+ * are not supported, as in the files this program writes.
+ */
+final class CsvReader implements Closeable {
+    private static final int CHUNK = 1 << 16; // bytes read from the file at a time
+
+    private final FileChannel channel;
+    private byte[] bytes = new byte[CHUNK];
+    private int filled; // valid bytes in bytes
+    private boolean endOfFile; // the whole file has been read into bytes
+    private int lineStart, lineEnd; // current row, without its line terminator
+    private int next; // start of the row after it
+    private int[] commas = new int[16]; // comma positions on the current row, found in the same pass as its end
+    private int commaCount;
+    private int field; // index of the next field to read
+
+    CsvReader(String path) throws IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(path + " (No such file)");
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    // ****************** ROWS ******************
+
+    /** Move to the next non-blank line; false at the end of the file */
+    public boolean nextRow() throws IOException {
+        while (true) {
+            int end = next;
+            commaCount = 0;
+            for (; end < filled; end++) {
+                byte b = bytes[end];
+                if (b == '\n')
+                    break;
+                if (b == ',') {
+                    if (commaCount == commas.length)
+                        commas = Arrays.copyOf(commas, commaCount * 2);
+                    commas[commaCount++] = end;
+                }
+            }
+            if (end == filled && !endOfFile) {
+                refill();
+                continue; // the row went past the copied bytes: scan it again with more
+            }
+            if (next == filled)
+                return false;
+
+            lineStart = next;
+            lineEnd = end > lineStart && bytes[end - 1] == '\r' ? end - 1 : end;
+            next = end < filled ? end + 1 : end;
+            field = 0;
+            if (!isBlank(lineStart, lineEnd))
+                return true;
+        }
+    }
+
+    // Keep the unread bytes and append the next ones from the file
+    private void refill() throws IOException {
+        int kept = filled - next;
+        if (kept == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2); // one row longer than the whole array
+        } else {
+            System.arraycopy(bytes, next, bytes, 0, kept);
+        }
+        filled = kept;
+        next = 0;
+
+        while (filled < bytes.length) {
+            int read = channel.read(ByteBuffer.wrap(bytes, filled, bytes.length - filled));
+            if (read < 0) {
+                endOfFile = true;
+                return;
+            }
+            filled += read;
+        }
+    }
+
+    /** Number of comma-separated fields on the current row */
+    public int fieldCount() {
+        return commaCount + 1;
+    }
+
+    /** True if the current row starts with prefix, ignoring ASCII case (e.g. a header) */
+    public boolean rowStartsWith(String prefix) {
+        if (lineEnd - lineStart < prefix.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase((char) bytes[lineStart + i]) != Character.toLowerCase(prefix.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    // ****************** FIELDS ******************
+
+    /** Go back to the first field of the current row, e.g. to salvage its ID after a parse error */
+    public void rewind() {
+        field = 0;
+    }
+
+    public void skipField() {
+        advance();
+    }
+
+    /** The next field as text (trimmed); "" if the row has no more fields */
+    public String nextString() {
+        long span = advance();
+        int from = (int) (span >>> 32), to = (int) span;
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    public int nextInt() {
+        long span = advance();
+        int from = (int) (span >>> 32), to = (int) span;
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if (i == to)
+            throw numberFormat(from, to);
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw numberFormat(from, to);
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1)
+                throw numberFormat(from, to);
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+            throw numberFormat(from, to);
+        return (int) value;
+    }
+
+    /** Boolean.parseBoolean semantics: true only for "true" in any case */
+    public boolean nextBoolean() {
+        long span = advance();
+        int from = (int) (span >>> 32), to = (int) span;
+        return to - from == 4 && rangeEqualsIgnoreCase(from, "true");
+    }
+
+    /**
+     * Plain decimals with up to 15 significant digits (all prices and
+     * amounts in these files) are computed from the digits directly, which
+     * is exact because both the digits and the power of ten are exact
+     * doubles. Anything else goes through Double.parseDouble.
+     */
+    public double nextDouble() {
+        long span = advance();
+        int from = (int) (span >>> 32), to = (int) span;
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long digits = 0;
+        int significant = 0, fraction = 0;
+        boolean point = false, any = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '.' && !point) {
+                point = true;
+            } else if (b >= '0' && b <= '9') {
+                any = true;
+                if (digits != 0 || b != '0')
+                    significant++;
+                digits = digits * 10 + (b - '0');
+                if (point)
+                    fraction++;
+                if (significant > 15)
+                    break;
+            } else {
+                break;
+            }
+        }
+        if (i == to && any && fraction < POWERS_OF_TEN.length) {
+            double value = digits / POWERS_OF_TEN[fraction];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(text(from, to)); // exponents, long mantissas, NaN, or an error
+    }
+
+    /** A yyyy-MM-dd HH:mm timestamp */
+    public LocalDateTime nextDateTime() {
+        long span = advance();
+        int from = (int) (span >>> 32), to = (int) span;
+        if (to - from != 16 || bytes[from + 4] != '-' || bytes[from + 7] != '-'
+                || bytes[from + 10] != ' ' || bytes[from + 13] != ':')
+            throw dateTimeParse(from, to, null);
+        try {
+            return LocalDateTime.of(digits(from, 4, from, to), digits(from + 5, 2, from, to),
+                    digits(from + 8, 2, from, to), digits(from + 11, 2, from, to), digits(from + 14, 2, from, to));
+        } catch (DateTimeException e) {
+            throw dateTimeParse(from, to, e);
+        }
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ****************** HELPERS ******************
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // Bounds of the next field, trimmed, packed as (from << 32) | to; moves past its comma
+    private long advance() {
+        int from, end;
+        if (field > commaCount) {
+            from = end = lineEnd; // past the last field
+        } else {
+            from = field == 0 ? lineStart : commas[field - 1] + 1;
+            end = field == commaCount ? lineEnd : commas[field];
+            field++;
+        }
+
+        int to = end;
+        while (from < to && (bytes[from] & 0xff) <= ' ')
+            from++;
+        while (to > from && (bytes[to - 1] & 0xff) <= ' ')
+            to--;
+        return ((long) from << 32) | to;
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((bytes[i] & 0xff) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    private boolean rangeEqualsIgnoreCase(int from, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toLowerCase((char) bytes[from + i]) != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private int digits(int at, int count, int from, int to) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw dateTimeParse(from, to, null);
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Only built on the error path
+    private String text(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private NumberFormatException numberFormat(int from, int to) {
+        return new NumberFormatException("For input string: \"" + text(from, to) + "\"");
+    }
+
+    private DateTimeParseException dateTimeParse(int from, int to, Throwable cause) {
+        String value = text(from, to);
+        return new DateTimeParseException("Text '" + value + "' could not be parsed", value, 0, cause);
+    }
+}
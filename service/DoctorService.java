@@ -3,17 +3,14 @@ package HospitalManagement.service;
 import HospitalManagement.model.Appointment;
 import HospitalManagement.model.Patient;
 import HospitalManagement.model.Doctor;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
@@ -27,92 +24,6 @@ import java.util.Arrays;
  * administrator menu
  * for CRUD operations on doctors with CSV file persistence.
  */
-class PatientBST {
-    private class Node {
-        Patient patient;
-        Node left, right;
-
-        Node(Patient patient) {
-            this.patient = patient;
-        }
-    }
-
-    private Node root;
-
-    public void insert(Patient patient) {
-        root = insertRec(root, patient);
-    }
-
-    private Node insertRec(Node root, Patient patient) {
-        if (root == null)
-            return new Node(patient);
-        if (patient.getPatientId() < root.patient.getPatientId())
-            root.left = insertRec(root.left, patient);
-        else
-            root.right = insertRec(root.right, patient);
-        return root;
-    }
-
-    public Patient searchById(int id) {
-        Node node = searchRec(root, id);
-        return node == null ? null : node.patient;
-    }
-
-    private Node searchRec(Node root, int id) {
-        if (root == null || root.patient.getPatientId() == id)
-            return root;
-        if (id < root.patient.getPatientId())
-            return searchRec(root.left, id);
-        return searchRec(root.right, id);
-    }
-
-    public void inOrder(List<Patient> list) {
-        inOrderRec(root, list);
-    }
-
-    private void inOrderRec(Node node, List<Patient> list) {
-        if (node != null) {
-            inOrderRec(node.left, list);
-            list.add(node.patient);
-            inOrderRec(node.right, list);
-        }
-    }
-
-    public void delete(int id) {
-        root = deleteRec(root, id);
-    }
-
-    private Node deleteRec(Node root, int id) {
-        if (root == null)
-            return root;
-
-        if (id < root.patient.getPatientId())
-            root.left = deleteRec(root.left, id);
-        else if (id > root.patient.getPatientId())
-            root.right = deleteRec(root.right, id);
-        else {
-            if (root.left == null)
-                return root.right;
-            else if (root.right == null)
-                return root.left;
-
-            root.patient = minValue(root.right);
-            root.right = deleteRec(root.right, root.patient.getPatientId());
-        }
-
-        return root;
-    }
-
-    private Patient minValue(Node root) {
-        Patient minv = root.patient;
-        while (root.left != null) {
-            minv = root.left.patient;
-            root = root.left;
-        }
-        return minv;
-    }
-}
-
 class DoctorBST {
     private class Node {
         Doctor doctor;
@@ -201,15 +112,37 @@ class DoctorBST {
 
 public class DoctorService {
     // Data lists for doctors, patients, and appointments
-    private static DoctorBST doctorTree = new DoctorBST();
-    private static PatientBST patientBST = new PatientBST();
-    private static List<Appointment> appointments = new ArrayList<>();
+    private static DoctorBST doctorTree = new DoctorBST(); // ordered by ID for listings
+    private static IntHashMap<Doctor> doctorsById = new IntHashMap<>(); // primary-key index for lookups
+    private static final StringDictionary dictionary = StringDictionary.SHARED; // repeated CSV values kept once
+    private static final PatientRepository patients = PatientRepository.getInstance(); // shared with PatientService
+    private static final AppointmentRepository appointments = AppointmentRepository.getInstance(); // shared with PatientService
+    private static final String DOCTORS_CSV_FILE = "data/Doctors.csv";
+    private static final String SNAPSHOT = "doctors";
+    private static final IntHashMap<Integer> unseenChanges = new IntHashMap<>(); // doctor ID -> schedule changes not yet viewed
+
+    static {
+        // Count bookings, moves and cancellations per doctor so a logged-in doctor sees them flagged
+        appointments.addListener((change, appt, previousDoctorId) -> {
+            if (change == AppointmentRepository.Change.RELOADED) {
+                unseenChanges.clear(); // the schedules were re-read from disk, so earlier counts no longer apply
+                return;
+            }
+            countChange(appt.getDoctorId());
+            if (previousDoctorId != -1 && previousDoctorId != appt.getDoctorId()) {
+                countChange(previousDoctorId); // moved away: the old doctor loses the slot
+            }
+        });
+    }
+
+    private static void countChange(int doctorId) {
+        Integer count = unseenChanges.get(doctorId);
+        unseenChanges.put(doctorId, count == null ? 1 : count + 1);
+    }
 
     public static void manageStaff() {
-        // Load data from CSV files on startup
+        // Load data from CSV files on startup (appointments are shared and already loaded)
         loadDoctors();
-        loadPatients();
-        loadAppointments();
 
         Scanner scanner = new Scanner(System.in);
         doctorLogin(scanner);
@@ -217,127 +150,104 @@ public class DoctorService {
 
     // ****************** CSV LOADING METHODS ******************
 
-    /** Load doctors from Doctors.csv into the doctors list */
+    /** Load doctors from Doctors.csv (or its binary snapshot) into the doctors list */
     public static void loadDoctors() {
-        String fileName = "data/Doctors.csv";
+        List<Doctor> loaded = BinarySnapshot.read(SNAPSHOT, DOCTORS_CSV_FILE, DoctorService::readSnapshotRow);
+        if (loaded == null) {
+            loaded = new ArrayList<>();
+            if (readDoctorsCsv(loaded)) {
+                BinarySnapshot.write(SNAPSHOT, DOCTORS_CSV_FILE, loaded, DoctorService::writeSnapshotRow);
+            }
+        }
+
+        for (Doctor doctor : loaded) {
+            // Already loaded (repeated row, or loadDoctors called again): keep the in-memory copy
+            if (doctorsById.containsKey(doctor.getId())) {
+                continue;
+            }
+            doctorTree.insert(doctor);
+            doctorsById.put(doctor.getId(), doctor);
+        }
+    }
+
+    // Parse Doctors.csv into doctors; false unless the whole file was read
+    private static boolean readDoctorsCsv(List<Doctor> doctors) {
+        String fileName = DOCTORS_CSV_FILE;
         File file = new File(fileName);
         // System.out.println("Loading doctors from: " + file.getAbsolutePath());
         // System.out.println("File exists: " + file.exists());
 
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Skip empty lines or header
-                // System.out.println("Line read: " + line);
-                if (line.trim().isEmpty() || line.toLowerCase().startsWith("id,")) {
+        try (CsvReader row = new CsvReader(fileName)) {
+            while (row.nextRow()) {
+                // Skip header (empty lines are skipped by the reader)
+                if (row.rowStartsWith("id,")) {
                     continue;
                 }
 
-                String[] data = line.split(",", -1); // -1 includes trailing empty strings
-                // System.out.println("Split into: " + Arrays.toString(data));
-                if (data.length < 7) {
+                if (row.fieldCount() < 7) {
                     continue; // expecting exactly 7 columns
                 }
-                int id = Integer.parseInt(data[0].trim());
-                String name = data[1].trim();
-                String qualification = data[2].trim();
-                String specialization = data[3].trim();
-                String contact = data[4].trim();
+                int id = row.nextInt();
+                String name = row.nextString();
+                String qualification = row.nextString();
+                String specialization = dictionary.intern(row.nextString());
+                String contact = row.nextString();
 
                 int experience;
                 try {
-                    experience = Integer.parseInt(data[5].trim());
+                    experience = row.nextInt();
                 } catch (NumberFormatException e) {
                     experience = 0;
                 }
 
-                String[] availabilityDays = data[6].trim().split("-");
+                String[] availabilityDays = row.nextString().split("-");
+                for (int i = 0; i < availabilityDays.length; i++) {
+                    availabilityDays[i] = dictionary.intern(availabilityDays[i]);
+                }
 
                 // Use updated Doctor constructor
-                Doctor doctor = new Doctor(id, name, qualification, specialization, contact, experience,
-                        availabilityDays);
-                doctorTree.insert(doctor);
+                doctors.add(new Doctor(id, name, qualification, specialization, contact, experience,
+                        availabilityDays));
             }
+            return true;
         } catch (FileNotFoundException e) {
             System.out.println("Doctors' data not found. A new file will be created on save.");
         } catch (IOException e) {
             System.out.println("Error reading Doctors.csv: " + e.getMessage());
         }
+        return false;
     }
 
-    /** Load patients from Patients.csv into the patients list */
-    public static void loadPatients() {
-        String fileName = "data/Patients.csv";
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Skip header or empty lines
-                if (line.trim().isEmpty() || line.toLowerCase().startsWith("patientid")) {
-                    continue;
-                }
-
-                String[] data = line.split(",", -1); // -1 to include trailing empty fields
-                if (data.length < 9) {
-                    continue; // Expecting 9 columns
-                }
-
-                int patientId = Integer.parseInt(data[0].trim());
-                String name = data[1].trim();
-                int age = Integer.parseInt(data[2].trim());
-                String gender = data[3].trim();
-                String illness = data[4].trim();
-                String emergencyContact = data[5].trim();
-                boolean vegetarian = Boolean.parseBoolean(data[6].trim());
-                int numberOfVisits = Integer.parseInt(data[7].trim());
-                boolean wasAdmittedBefore = Boolean.parseBoolean(data[8].trim());
-
-                Patient patient = new Patient(patientId, name, age, gender, illness, emergencyContact,
-                        vegetarian, numberOfVisits, wasAdmittedBefore);
+    private static void writeSnapshotRow(BinarySnapshot.Output out, Doctor d) throws IOException {
+        out.writeInt(d.getId());
+        out.writeString(d.getName());
+        out.writeString(d.getQualification());
+        out.writeString(d.getSpecialization());
+        out.writeString(d.getContact());
+        out.writeInt(d.getExperience());
+        out.writeInt(d.getAvailability().length);
+        for (String day : d.getAvailability()) {
+            out.writeString(day);
+        }
+    }
 
-                patientBST.insert(patient);
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("Patients.csv not found. Patient search may be limited.");
-        } catch (IOException e) {
-            System.out.println("Error reading Patients.csv: " + e.getMessage());
+    private static Doctor readSnapshotRow(BinarySnapshot.Input in) {
+        int id = in.readInt();
+        String name = in.readString();
+        String qualification = in.readString();
+        String specialization = dictionary.intern(in.readString());
+        String contact = in.readString();
+        int experience = in.readInt();
+        String[] availabilityDays = new String[in.readInt()];
+        for (int i = 0; i < availabilityDays.length; i++) {
+            availabilityDays[i] = dictionary.intern(in.readString());
         }
+        return new Doctor(id, name, qualification, specialization, contact, experience, availabilityDays);
     }
 
-    /** Load appointments from Appointments.csv into the appointments list */
+    /** Re-read the hot window of Appointments.csv into the shared store */
     public static void loadAppointments() {
-        String fileName = "data/Appointments.csv";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Skip header or empty lines
-                if (line.trim().isEmpty() || line.toLowerCase().startsWith("appointmentid")) {
-                    continue;
-                }
-
-                String[] data = line.split(",", -1); // -1 to avoid skipping empty columns
-                if (data.length < 6) // Expecting 6 fields: appointmentId, patientId, patientName, reason, dateTime,
-                                     // doctorId
-                    continue;
-
-                int appointmentId = Integer.parseInt(data[0]);
-                int patientId = Integer.parseInt(data[1]);
-                String patientName = data[2];
-                String reason = data[3];
-                LocalDateTime dateTime = LocalDateTime.parse(data[4], formatter);
-                int doctorId = Integer.parseInt(data[5]);
-
-                Appointment appt = new Appointment(appointmentId, patientId, patientName, reason, dateTime, doctorId);
-                appointments.add(appt);
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("Appointments.csv not found. No appointments loaded.");
-        } catch (IOException e) {
-            System.out.println("Error reading Appointments.csv: " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error parsing appointment data: " + e.getMessage());
-        }
+        appointments.load();
     }
 
     // ****************** CSV SAVING METHODS ******************
@@ -379,6 +289,10 @@ public class DoctorService {
 
         // Doctor menu loop
         while (true) {
+            Integer changes = unseenChanges.get(doctor.getId());
+            if (changes != null) {
+                System.out.println("\n* " + changes + " change(s) to your schedule since you last viewed it.");
+            }
             System.out.println("\n==== Doctor Menu: ====");
             System.out.println("1. View My Appointments");
             System.out.println("2. Search Patient by ID");
@@ -389,9 +303,9 @@ public class DoctorService {
             if (choice == 1) {
                 viewAppointments(doctor);
             } else if (choice == 2) {
-                searchPatientById(scanner, patientBST);
+                searchPatientById(scanner, patients);
             } else if (choice == 3) {
-                searchPatientByName(scanner, patientBST);
+                searchPatientByName(scanner, patients);
             } else if (choice == 0) {
                 System.out.println("Logging out of doctor portal.");
                 break;
@@ -401,19 +315,18 @@ public class DoctorService {
         }
     }
 
-    /** Display all appointments for the given doctor */
+    /** Display all appointments for the given doctor, earliest first */
     public static void viewAppointments(Doctor doctor) {
+        unseenChanges.remove(doctor.getId());
         boolean found = false;
         System.out.println("\nAppointments for Dr. " + doctor.getName() + ":");
-        for (Appointment appt : appointments) {
-            if (appt.getDoctorId() == doctor.getId()) {
-                Patient pat = findPatientById(appt.getPatientId(), patientBST);
-                String patientName = (pat != null) ? pat.getName() : "Unknown Patient";
-                System.out.println("Appointment ID: " + appt.getAppointmentId()
-                        + ", Patient: " + patientName
-                        + ", Date: " + appt.getAppointmentDate());
-                found = true;
-            }
+        for (Appointment appt : appointments.findByDoctor(doctor.getId())) {
+            Patient pat = findPatientById(appt.getPatientId());
+            String patientName = (pat != null) ? pat.getName() : "Unknown Patient";
+            System.out.println("Appointment ID: " + appt.getAppointmentId()
+                    + ", Patient: " + patientName
+                    + ", Date: " + appt.getAppointmentDate());
+            found = true;
         }
         if (!found) {
             System.out.println("No appointments found for Dr. " + doctor.getName() + ".");
@@ -421,12 +334,11 @@ public class DoctorService {
     }
 
     /** Search for a patient by ID (doctor function) */
-    public static void searchPatientById(Scanner scanner, PatientBST patientBST) {
+    public static void searchPatientById(Scanner scanner, PatientRepository patients) {
         System.out.print("Enter Patient ID to search: ");
         int patId = Integer.parseInt(scanner.nextLine().trim());
 
-        // Use the searchById method from the PatientBST class
-        Patient pat = patientBST.searchById(patId);
+        Patient pat = patients.findById(patId);
 
         if (pat != null) {
             System.out.println("Patient found: ");
@@ -437,21 +349,18 @@ public class DoctorService {
     }
 
     /** Search for patients by name (doctor function) */
-    public static void searchPatientByName(Scanner scanner, PatientBST patientBST) {
+    public static void searchPatientByName(Scanner scanner, PatientRepository patients) {
         System.out.print("Enter Patient Name to search: ");
         String name = scanner.nextLine().trim();
 
-        List<Patient> patients = new ArrayList<>();
-        patientBST.inOrder(patients); // Perform in-order traversal to get all patients in sorted order
+        List<Patient> matches = patients.findByName(name); // name index lookup, no full scan
 
         boolean found = false;
         System.out.println("Search results for name '" + name + "':");
-        for (Patient pat : patients) {
-            if (pat.getName().equalsIgnoreCase(name)) {
-                System.out.println("Patient Found: ");
-                System.out.println(pat.toString());
-                found = true;
-            }
+        for (Patient pat : matches) {
+            System.out.println("Patient Found: ");
+            System.out.println(pat.toString());
+            found = true;
         }
 
         if (!found) {
@@ -459,27 +368,46 @@ public class DoctorService {
         }
     }
 
+    /** In-memory doctor by ID for other services; loads Doctors.csv on first use */
+    static synchronized Doctor getDoctor(int id) {
+        if (doctorsById.isEmpty()) {
+            loadDoctors();
+        }
+        return doctorsById.get(id);
+    }
+
+    /** In-memory doctors with this specialization (case-insensitive), by ID */
+    static synchronized List<Doctor> getDoctorsBySpecialization(String specialization) {
+        if (doctorsById.isEmpty()) {
+            loadDoctors();
+        }
+        List<Doctor> matched = new ArrayList<>();
+        if (specialization == null) {
+            return matched;
+        }
+        String wanted = specialization.trim();
+        doctorsById.forEachValue(doctor -> {
+            if (doctor.getSpecialization() != null && doctor.getSpecialization().trim().equalsIgnoreCase(wanted)) {
+                matched.add(doctor);
+            }
+        });
+        matched.sort(Comparator.comparingInt(Doctor::getId));
+        return matched;
+    }
+
     /** Helper to find a Doctor object by ID */
     public static Doctor findDoctorById(String idStr) {
         try {
             int id = Integer.parseInt(idStr);
-            return doctorTree.searchById(id);
+            return doctorsById.get(id);
         } catch (NumberFormatException e) {
             return null;
         }
     }
 
     /** Helper to find a Patient object by ID */
-    public static Patient findPatientById(int id, PatientBST patientBST) {
-        List<Patient> allPatients = new ArrayList<>();
-        patientBST.inOrder(allPatients); // fill the list using in-order traversal
-
-        for (Patient p : allPatients) {
-            if (p.getPatientId() == id) {
-                return p;
-            }
-        }
-        return null;
+    public static Patient findPatientById(int id) {
+        return patients.findById(id);
     }
 
     // ****************** ADMINISTRATOR FUNCTIONS ******************
@@ -583,6 +511,7 @@ public class DoctorService {
 
         // Assuming doctors is a BST
         doctorTree.insert(newDoctor);
+        doctorsById.put(id, newDoctor);
 
         // Save doctors list to some storage (file, database, etc.)
         saveDoctors();
@@ -606,6 +535,7 @@ public class DoctorService {
         int parsedId = Integer.parseInt(id); // safe because findDoctorById didn't return null
 
         doctorTree.delete(parsedId); // now it's an int, matches method signature
+        doctorsById.remove(parsedId);
         saveDoctors();
         System.out.println("Doctor with ID " + parsedId + " deleted.");
     }
@@ -680,15 +610,12 @@ public class DoctorService {
 
     /** Search and display a doctor by ID */
     public static void searchDoctorById(String id) {
-        List<Doctor> allDoctors = new ArrayList<>();
-        doctorTree.inOrder(allDoctors);
         int inputId = Integer.parseInt(id); // wrap in try-catch in real usage
 
-        for (Doctor d : allDoctors) {
-            if (d.getId() == inputId) {
-                displayDoctors(Collections.singletonList(d));
-                return;
-            }
+        Doctor d = doctorsById.get(inputId);
+        if (d != null) {
+            displayDoctors(Collections.singletonList(d));
+            return;
         }
 
         System.out.println("No doctor found with ID: " + id);
@@ -0,0 +1,167 @@
+package HospitalManagement.service;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * IntHashMap.java
+ *
+ * Open-addressing hash map from a primitive int key to an object, used as the
+ * primary-key index for patients, doctors and appointments. Keys live in an
+ * int[] and values in a parallel Object[], so there is no Integer boxing and no
+ * per-entry node object. Collisions are resolved by linear probing, and removal
+ * shifts later entries back instead of leaving tombstones, so lookups never slow
+ * down after many deletes. Null values are not allowed (a null slot means empty).
+ */
+class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = hash(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key)
+                return (V) value;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /** Insert or replace; returns the previous value or null */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("IntHashMap does not store null values");
+
+        int slot = hash(key) & mask;
+        Object existing;
+        while ((existing = values[slot]) != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return (V) existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    /** Remove a key; returns the value it held or null */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = hash(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /** Visit every value, in no particular order */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null)
+                action.accept((V) value);
+        }
+    }
+
+    // ------------------------- Internals -------------------------
+
+    // Backward-shift deletion: pull later members of the probe run into the gap
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null)
+                break;
+            int home = hash(keys[slot]) & mask;
+            // Move the entry if its home slot is not cyclically within (gap, slot]
+            boolean movable = (gap <= slot) ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (movable) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null)
+                continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    // IDs are usually sequential, so scramble them before masking
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,99 @@
+package HospitalManagement.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * IntHashMapCheck.java
+ *
+ * Randomised churn of IntHashMap against a java.util.HashMap fed the same
+ * puts, replacements and removes. Backward-shift deletion is only correct if
+ * every entry stays reachable from its home slot, so after each batch every
+ * key in the key space is looked up in both maps, including keys that were
+ * removed, and the values seen by forEachValue are compared as a multiset.
+ * Each round uses a different key pattern: sequential IDs (the real load),
+ * random ints including negatives and zero, and multiples of a large power
+ * of two, which share low bits and make long probe runs that wrap around the
+ * end of the table. Throws at the first difference, so a clean run ends
+ * with "OK".
+ *
+ * Run from the project root after compiling:
+ * java -cp out HospitalManagement.service.IntHashMapCheck [operationsPerRound] [seed]
+ */
+public final class IntHashMapCheck {
+
+    private IntHashMapCheck() {
+    }
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Random random = new Random(seed);
+
+        int[] sequential = new int[4_096];
+        int[] scattered = new int[4_096];
+        int[] clustered = new int[4_096];
+        for (int i = 0; i < sequential.length; i++) {
+            sequential[i] = 100 + i;
+            scattered[i] = i == 0 ? 0 : random.nextInt();
+            clustered[i] = i << 20;
+        }
+
+        churn("sequential", sequential, operations, random);
+        churn("scattered", scattered, operations, random);
+        churn("clustered", clustered, operations, random);
+        System.out.printf("OK: %d operations per round, seed %d%n", operations, seed);
+    }
+
+    private static void churn(String name, int[] keySpace, int operations, Random random) {
+        IntHashMap<Integer> map = new IntHashMap<>(1); // start tiny so growth is exercised too
+        HashMap<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 1; i <= operations; i++) {
+            int key = keySpace[random.nextInt(keySpace.length)];
+            // Bias towards removal while the map is large, so it grows and shrinks repeatedly
+            boolean remove = random.nextInt(keySpace.length) < expected.size();
+            if (remove) {
+                expect(same(map.remove(key), expected.remove(key)), name + ": remove(" + key + ") differs");
+            } else {
+                Integer value = random.nextInt();
+                expect(same(map.put(key, value), expected.put(key, value)), name + ": put(" + key + ") differs");
+            }
+            if (i % 1_000 == 0)
+                compare(name, map, expected, keySpace);
+        }
+
+        map.clear();
+        expected.clear();
+        compare(name, map, expected, keySpace);
+    }
+
+    private static void compare(String name, IntHashMap<Integer> map, HashMap<Integer, Integer> expected,
+            int[] keySpace) {
+        expect(map.size() == expected.size(), name + ": size " + map.size() + ", expected " + expected.size());
+        expect(map.isEmpty() == expected.isEmpty(), name + ": isEmpty differs");
+        for (int key : keySpace) {
+            expect(same(map.get(key), expected.get(key)), name + ": get(" + key + ") differs");
+            expect(map.containsKey(key) == expected.containsKey(key), name + ": containsKey(" + key + ") differs");
+        }
+
+        List<Integer> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        List<Integer> expectedValues = new ArrayList<>(expected.values());
+        Collections.sort(values);
+        Collections.sort(expectedValues);
+        expect(values.equals(expectedValues), name + ": forEachValue saw different values");
+    }
+
+    private static boolean same(Integer a, Integer b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition)
+            throw new IllegalStateException(message);
+    }
+}
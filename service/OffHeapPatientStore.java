@@ -0,0 +1,514 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * OffHeapPatientStore.java
+ *
+ * PatientStore that keeps every patient in direct (off-heap) memory, so a
+ * multi-million patient registry does not cost gigabytes of heap or long GC
+ * pauses. Enable it with -Dhospital.patientStore=offheap.
+ *
+ * Direct memory has its own limit, -XX:MaxDirectMemorySize, and it defaults
+ * to the -Xmx value, so a small heap must come with the flag or the store
+ * fails with "OutOfMemoryError: Direct buffer memory". A million patients
+ * with typical names take about 125 MB; leave headroom for the hash tables,
+ * which are reallocated at twice the size as the registry grows (the old ones
+ * stay reserved until the next GC), e.g.:
+ *
+ * java -Xmx32m -XX:MaxDirectMemorySize=256m -Dhospital.patientStore=offheap ...
+ *
+ * Each patient occupies one fixed 64-byte record:
+ *
+ * 0 id | 4 age | 8 visits | 12 flags (live, vegetarian, admitted before)
+ * 16 name | 24 gender | 32 illness | 40 contact (each: int offset, int length)
+ * 48 next record with the same name bucket | 52 next record with the same identity bucket
+ * 56 name hash | 60 identity hash
+ *
+ * Records and text are kept in fixed 1 MB direct chunks that are added as the
+ * registry grows and never copied, so growing never needs a second, larger
+ * buffer next to the old one. A record never spans two chunks (64 divides
+ * the chunk size), and neither does a string: one that does not fit in what
+ * is left of a chunk starts the next. clear() keeps the chunks and tables for
+ * the reload that usually follows.
+ *
+ * The text itself is UTF-8 in a separate append-only string area. The ID index
+ * and the name and (name, contact) buckets are open-addressing int tables in
+ * direct memory too, with collision chains threaded through the records.
+ * Patient objects are built only when read, so callers get copies and must
+ * call update() to save an edit.
+ */
+class OffHeapPatientStore implements PatientStore {
+    // Record layout
+    private static final int ID = 0;
+    private static final int AGE = 4;
+    private static final int VISITS = 8;
+    private static final int FLAGS = 12;
+    private static final int NAME = 16;
+    private static final int GENDER = 24;
+    private static final int ILLNESS = 32;
+    private static final int CONTACT = 40;
+    private static final int NEXT_BY_NAME = 48;
+    private static final int NEXT_BY_IDENTITY = 52;
+    private static final int NAME_HASH = 56;
+    private static final int IDENTITY_HASH = 60;
+    private static final int RECORD_SIZE = 64;
+
+    private static final byte LIVE = 1;
+    private static final byte VEGETARIAN = 2;
+    private static final byte ADMITTED = 4;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // bytes per direct chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private ByteBuffer[] records = new ByteBuffer[0]; // RECORD_SIZE bytes per slot; position slot * RECORD_SIZE
+    private ByteBuffer[] strings = new ByteBuffer[0]; // UTF-8 text referenced by the records
+    private IntBuffer idTable;      // pairs of (id, slot + 1); 0 in the second int marks an empty pair
+    private IntBuffer nameHeads;    // first slot of each name bucket, or NONE
+    private IntBuffer identityHeads; // first slot of each identity bucket, or NONE
+    private int tableMask;
+
+    private int slotCount;      // slots handed out so far (live or freed)
+    private int freeHead = NONE; // freed slots, chained through NEXT_BY_NAME
+    private int stringEnd;      // first unused position in the string area
+    private int size;
+    private int maxId;
+
+    public OffHeapPatientStore() {
+        clear();
+    }
+
+    // ****************** PatientStore ******************
+
+    @Override
+    public void insert(Patient patient) {
+        int id = patient.getPatientId();
+        int slot = lookupSlot(id);
+        if (slot != NONE) {
+            rewrite(slot, patient); // same ID: replace the stored record
+            return;
+        }
+
+        if ((size + 1) * 2 > tableMask + 1) {
+            resizeTables((tableMask + 1) * 2);
+        }
+
+        slot = allocateSlot();
+        int base = slot * RECORD_SIZE;
+        writeFields(base, patient, true);
+        putSlot(id, slot);
+        link(slot);
+        size++;
+        maxId = Math.max(maxId, id);
+    }
+
+    @Override
+    public boolean update(Patient patient) {
+        int slot = lookupSlot(patient.getPatientId());
+        if (slot == NONE) {
+            return false;
+        }
+        rewrite(slot, patient);
+        return true;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        int slot = lookupSlot(id);
+        if (slot == NONE) {
+            return false;
+        }
+        unlink(slot);
+        removeSlot(id);
+
+        // The record goes on the free list; its text stays in the string area until the next reload
+        int base = slot * RECORD_SIZE;
+        putRecordByte(base + FLAGS, (byte) 0);
+        putRecordInt(base + NEXT_BY_NAME, freeHead);
+        freeHead = slot;
+        size--;
+        return true;
+    }
+
+    @Override
+    public Patient searchById(int id) {
+        int slot = lookupSlot(id);
+        return slot == NONE ? null : read(slot);
+    }
+
+    @Override
+    public List<Patient> searchAllByName(String name) {
+        String key = PatientNameIndex.fold(name);
+        int hash = key.hashCode();
+        List<Patient> matches = new ArrayList<>();
+
+        for (int slot = nameHeads.get(hash & tableMask); slot != NONE; slot = recordInt(slot * RECORD_SIZE + NEXT_BY_NAME)) {
+            int base = slot * RECORD_SIZE;
+            if (recordInt(base + NAME_HASH) == hash
+                    && PatientNameIndex.fold(readString(base + NAME)).equals(key)) {
+                matches.add(read(slot));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Patient::getPatientId));
+        return matches;
+    }
+
+    @Override
+    public Patient findByIdentity(String name, String contact) {
+        String key = PatientNameIndex.identityKey(name, contact);
+        int hash = key.hashCode();
+        int best = NONE;
+
+        for (int slot = identityHeads.get(hash & tableMask); slot != NONE; slot = recordInt(slot * RECORD_SIZE + NEXT_BY_IDENTITY)) {
+            int base = slot * RECORD_SIZE;
+            if (recordInt(base + IDENTITY_HASH) == hash && identityKeyOf(base).equals(key)
+                    && (best == NONE || recordInt(base + ID) < recordInt(best * RECORD_SIZE + ID))) {
+                best = slot; // lowest ID wins, as in the heap store
+            }
+        }
+        return best == NONE ? null : read(best);
+    }
+
+    @Override
+    public int getMaxId() {
+        return maxId;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Keeps the chunks and tables already allocated: the old contents are never read again
+    @Override
+    public void clear() {
+        slotCount = 0;
+        freeHead = NONE;
+        stringEnd = 0;
+        size = 0;
+        maxId = 0;
+        resizeTables(idTable == null ? INITIAL_SLOTS * 2 : tableMask + 1);
+    }
+
+    @Override
+    public void traverseInOrder(Consumer<Patient> action) {
+        for (int id : sortedIds()) {
+            action.accept(read(lookupSlot(id)));
+        }
+    }
+
+    @Override
+    public List<Patient> getAllPatientsInOrder() {
+        List<Patient> result = new ArrayList<>(size);
+        traverseInOrder(result::add);
+        return result;
+    }
+
+    @Override
+    public Stream<Patient> stream() {
+        return Arrays.stream(sortedIds()).mapToObj(this::searchById);
+    }
+
+    @Override
+    public Stream<Patient> parallelStream() {
+        return stream().parallel();
+    }
+
+    // Scans the fixed-width ID column; only the hits are sorted and materialized
+    @Override
+    public Stream<Patient> rangeById(int fromId, int toId) {
+        int[] ids = new int[size];
+        int hits = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slot * RECORD_SIZE;
+            if ((recordByte(base + FLAGS) & LIVE) == 0)
+                continue;
+            int id = recordInt(base + ID);
+            if (id >= fromId && id <= toId)
+                ids[hits++] = id;
+        }
+        Arrays.sort(ids, 0, hits);
+        return Arrays.stream(ids, 0, hits).mapToObj(this::searchById);
+    }
+
+    @Override
+    public List<Patient> rangeByAge(int minAge, int maxAge) {
+        // (age, id) packed into one long so a primitive sort gives age-then-ID order
+        long[] keys = new long[size];
+        int hits = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slot * RECORD_SIZE;
+            if ((recordByte(base + FLAGS) & LIVE) == 0)
+                continue;
+            int age = recordInt(base + AGE);
+            if (age >= minAge && age <= maxAge)
+                keys[hits++] = ((long) age << 32) | (recordInt(base + ID) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys, 0, hits);
+
+        List<Patient> matches = new ArrayList<>(hits);
+        for (int i = 0; i < hits; i++) {
+            matches.add(searchById((int) keys[i]));
+        }
+        return matches;
+    }
+
+    // ****************** RECORDS ******************
+
+    // Record slots handed out so far; with freed slots reused this never exceeds the peak size
+    int slotCount() {
+        return slotCount;
+    }
+
+    private int allocateSlot() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = recordInt(slot * RECORD_SIZE + NEXT_BY_NAME);
+            return slot;
+        }
+        if (slotCount * RECORD_SIZE >>> CHUNK_SHIFT == records.length) {
+            records = addChunk(records);
+        }
+        return slotCount++;
+    }
+
+    private void rewrite(int slot, Patient patient) {
+        unlink(slot);
+        writeFields(slot * RECORD_SIZE, patient, false);
+        link(slot);
+        maxId = Math.max(maxId, patient.getPatientId());
+    }
+
+    // fresh: the slot has no text yet, so every string is appended
+    private void writeFields(int base, Patient patient, boolean fresh) {
+        putRecordInt(base + ID, patient.getPatientId());
+        putRecordInt(base + AGE, patient.getAge());
+        putRecordInt(base + VISITS, patient.getNumberOfVisits());
+
+        byte flags = LIVE;
+        if (patient.isVegetarian())
+            flags |= VEGETARIAN;
+        if (patient.WasAdmittedBefore())
+            flags |= ADMITTED;
+        putRecordByte(base + FLAGS, flags);
+
+        writeString(base + NAME, patient.getName(), fresh);
+        writeString(base + GENDER, patient.getGender(), fresh);
+        writeString(base + ILLNESS, patient.getIllness(), fresh);
+        writeString(base + CONTACT, patient.getEmergencyContact(), fresh);
+    }
+
+    private Patient read(int slot) {
+        int base = slot * RECORD_SIZE;
+        byte flags = recordByte(base + FLAGS);
+        return new Patient(
+                recordInt(base + ID),
+                readString(base + NAME),
+                recordInt(base + AGE),
+                readString(base + GENDER),
+                readString(base + ILLNESS),
+                readString(base + CONTACT),
+                (flags & VEGETARIAN) != 0,
+                recordInt(base + VISITS),
+                (flags & ADMITTED) != 0);
+    }
+
+    private int[] sortedIds() {
+        int[] ids = new int[size];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slot * RECORD_SIZE;
+            if ((recordByte(base + FLAGS) & LIVE) != 0) {
+                ids[next++] = recordInt(base + ID);
+            }
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // ****************** STRING AREA ******************
+
+    // Overwrites the old text in place when the new value fits, otherwise appends
+    private void writeString(int fieldPos, String value, boolean fresh) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (!fresh && bytes.length <= recordInt(fieldPos + 4)) {
+            int at = recordInt(fieldPos);
+            strings[at >>> CHUNK_SHIFT].put(at & CHUNK_MASK, bytes);
+            putRecordInt(fieldPos + 4, bytes.length);
+            return;
+        }
+
+        if (bytes.length > CHUNK_SIZE)
+            throw new IllegalArgumentException("Patient field longer than " + CHUNK_SIZE + " bytes");
+        if ((stringEnd & CHUNK_MASK) + bytes.length > CHUNK_SIZE) {
+            stringEnd = (stringEnd | CHUNK_MASK) + 1; // does not fit in this chunk: start the next
+        }
+        if (stringEnd >>> CHUNK_SHIFT == strings.length) {
+            strings = addChunk(strings);
+        }
+        strings[stringEnd >>> CHUNK_SHIFT].put(stringEnd & CHUNK_MASK, bytes);
+        putRecordInt(fieldPos, stringEnd);
+        putRecordInt(fieldPos + 4, bytes.length);
+        stringEnd += bytes.length;
+    }
+
+    private String readString(int fieldPos) {
+        int at = recordInt(fieldPos);
+        byte[] bytes = new byte[recordInt(fieldPos + 4)];
+        strings[at >>> CHUNK_SHIFT].get(at & CHUNK_MASK, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String identityKeyOf(int base) {
+        return PatientNameIndex.identityKey(readString(base + NAME), readString(base + CONTACT));
+    }
+
+    // One more chunk; the existing ones stay where they are, so nothing is copied
+    private static ByteBuffer[] addChunk(ByteBuffer[] chunks) {
+        ByteBuffer[] more = Arrays.copyOf(chunks, chunks.length + 1);
+        more[chunks.length] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        return more;
+    }
+
+    // Record fields by position (slot * RECORD_SIZE + field offset)
+    private int recordInt(int pos) {
+        return records[pos >>> CHUNK_SHIFT].getInt(pos & CHUNK_MASK);
+    }
+
+    private void putRecordInt(int pos, int value) {
+        records[pos >>> CHUNK_SHIFT].putInt(pos & CHUNK_MASK, value);
+    }
+
+    private byte recordByte(int pos) {
+        return records[pos >>> CHUNK_SHIFT].get(pos & CHUNK_MASK);
+    }
+
+    private void putRecordByte(int pos, byte value) {
+        records[pos >>> CHUNK_SHIFT].put(pos & CHUNK_MASK, value);
+    }
+
+    // ****************** ID TABLE ******************
+
+    private int lookupSlot(int id) {
+        int i = mix(id) & tableMask;
+        int stored;
+        while ((stored = idTable.get(2 * i + 1)) != 0) {
+            if (idTable.get(2 * i) == id)
+                return stored - 1;
+            i = (i + 1) & tableMask;
+        }
+        return NONE;
+    }
+
+    private void putSlot(int id, int slot) {
+        int i = mix(id) & tableMask;
+        while (idTable.get(2 * i + 1) != 0 && idTable.get(2 * i) != id) {
+            i = (i + 1) & tableMask;
+        }
+        idTable.put(2 * i, id);
+        idTable.put(2 * i + 1, slot + 1);
+    }
+
+    // Backward-shift deletion, as in IntHashMap
+    private void removeSlot(int id) {
+        int gap = mix(id) & tableMask;
+        while (idTable.get(2 * gap) != id || idTable.get(2 * gap + 1) == 0) {
+            gap = (gap + 1) & tableMask;
+        }
+
+        int i = gap;
+        while (true) {
+            i = (i + 1) & tableMask;
+            if (idTable.get(2 * i + 1) == 0)
+                break;
+            int home = mix(idTable.get(2 * i)) & tableMask;
+            boolean movable = (gap <= i) ? (home <= gap || home > i) : (home <= gap && home > i);
+            if (movable) {
+                idTable.put(2 * gap, idTable.get(2 * i));
+                idTable.put(2 * gap + 1, idTable.get(2 * i + 1));
+                gap = i;
+            }
+        }
+        idTable.put(2 * gap + 1, 0);
+    }
+
+    // ****************** NAME / IDENTITY BUCKETS ******************
+
+    private void link(int slot) {
+        int base = slot * RECORD_SIZE;
+        int nameHash = PatientNameIndex.fold(readString(base + NAME)).hashCode();
+        int identityHash = identityKeyOf(base).hashCode();
+        putRecordInt(base + NAME_HASH, nameHash);
+        putRecordInt(base + IDENTITY_HASH, identityHash);
+
+        putRecordInt(base + NEXT_BY_NAME, nameHeads.get(nameHash & tableMask));
+        nameHeads.put(nameHash & tableMask, slot);
+        putRecordInt(base + NEXT_BY_IDENTITY, identityHeads.get(identityHash & tableMask));
+        identityHeads.put(identityHash & tableMask, slot);
+    }
+
+    private void unlink(int slot) {
+        int base = slot * RECORD_SIZE;
+        unlinkFrom(nameHeads, recordInt(base + NAME_HASH) & tableMask, slot, NEXT_BY_NAME);
+        unlinkFrom(identityHeads, recordInt(base + IDENTITY_HASH) & tableMask, slot, NEXT_BY_IDENTITY);
+    }
+
+    private void unlinkFrom(IntBuffer heads, int bucket, int slot, int nextField) {
+        int previous = NONE;
+        int current = heads.get(bucket);
+        while (current != NONE && current != slot) {
+            previous = current;
+            current = recordInt(current * RECORD_SIZE + nextField);
+        }
+        if (current == NONE)
+            return;
+
+        int next = recordInt(slot * RECORD_SIZE + nextField);
+        if (previous == NONE)
+            heads.put(bucket, next);
+        else
+            putRecordInt(previous * RECORD_SIZE + nextField, next);
+    }
+
+    // Size the ID table and buckets to a power of two (reallocating only if the size
+    // changes), empty them and re-file every live record
+    private void resizeTables(int capacity) {
+        if (idTable == null || capacity != tableMask + 1) {
+            idTable = ByteBuffer.allocateDirect(capacity * 2 * Integer.BYTES).asIntBuffer();
+            nameHeads = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+            identityHeads = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        }
+        for (int i = 0; i < capacity; i++) {
+            idTable.put(2 * i + 1, 0);
+            nameHeads.put(i, NONE);
+            identityHeads.put(i, NONE);
+        }
+        tableMask = capacity - 1;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slot * RECORD_SIZE;
+            if ((recordByte(base + FLAGS) & LIVE) != 0) {
+                putSlot(recordInt(base + ID), slot);
+                link(slot);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
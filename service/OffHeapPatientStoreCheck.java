@@ -0,0 +1,130 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * OffHeapPatientStoreCheck.java
+ *
+ * Randomised check of OffHeapPatientStore against the heap store,
+ * PatientBinaryST, fed the same inserts, same-ID replacements, updates and
+ * deletes through the PatientStore interface. Patients are compared field by
+ * field (via toString), and every 1,000 operations the check compares
+ * searchById over the whole key space, the in-order listing, the name and
+ * (name, contact) lookups with differently cased names, and the ID and age
+ * ranges. Updates make strings shorter (rewritten in place) and longer
+ * (appended), names repeat so the hash buckets chain, and some include
+ * non-ASCII letters. It also checks that deleted record slots are reused:
+ * slotCount() must equal the largest size the store has reached. Throws at
+ * the first difference, so a clean run ends with "OK".
+ *
+ * Run from the project root after compiling:
+ * java -cp out HospitalManagement.service.OffHeapPatientStoreCheck [operations] [seed]
+ */
+public final class OffHeapPatientStoreCheck {
+    private static final String[] NAMES = { "Ali Khan", "ALI KHAN", "Sara Ahmed", "Zoë Brandt", "Åsa Lind", "Bilal",
+            "Muhammad Abdullah Rehman Siddiqui", "Hina", "Omar Farooq", "Ayesha Noor" };
+    private static final String[] ILLNESSES = { "Flu", "Fever", "Migraine", "Type 2 diabetes with complications" };
+
+    private OffHeapPatientStoreCheck() {
+    }
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Random random = new Random(seed);
+
+        OffHeapPatientStore store = new OffHeapPatientStore();
+        PatientStore expected = new PatientBinaryST();
+        int range = 5_000;
+        int peak = 0;
+
+        for (int i = 1; i <= operations; i++) {
+            int id = 1 + random.nextInt(range);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                boolean deleted = store.delete(id);
+                expect(deleted == expected.delete(id), "delete(" + id + ") returned " + deleted);
+            } else if (op == 1) {
+                Patient patient = patient(id, random);
+                boolean updated = store.update(patient);
+                expect(updated == expected.update(patient), "update(" + id + ") returned " + updated);
+            } else {
+                Patient patient = patient(id, random);
+                store.insert(patient); // an existing ID is replaced
+                expected.insert(patient);
+            }
+            peak = Math.max(peak, expected.size());
+            if (i % 1_000 == 0)
+                compare(store, expected, range, peak, random);
+        }
+
+        store.clear();
+        expected.clear();
+        expect(store.size() == 0 && store.getMaxId() == 0 && store.slotCount() == 0, "clear() left records behind");
+        expect(store.searchById(1) == null && store.getAllPatientsInOrder().isEmpty(), "clear() left patients behind");
+
+        System.out.printf("OK: %d operations, seed %d%n", operations, seed);
+    }
+
+    private static void compare(OffHeapPatientStore store, PatientStore expected, int range, int peak, Random random) {
+        expect(store.size() == expected.size(), "size " + store.size() + ", expected " + expected.size());
+        expect(store.getMaxId() == expected.getMaxId(), "max ID " + store.getMaxId() + ", expected " + expected.getMaxId());
+        expect(store.slotCount() == peak, store.slotCount() + " slots for a peak of " + peak + " patients");
+
+        for (int id = 0; id <= range + 1; id++) {
+            expect(describe(store.searchById(id)).equals(describe(expected.searchById(id))),
+                    "searchById(" + id + ") differs");
+        }
+        expect(describe(store.getAllPatientsInOrder()).equals(describe(expected.getAllPatientsInOrder())),
+                "in-order listing differs");
+        expect(describe(store.stream().collect(Collectors.toList())).equals(describe(expected.getAllPatientsInOrder())),
+                "stream differs");
+
+        for (String name : NAMES) {
+            String asked = random.nextBoolean() ? name.toUpperCase() : name.toLowerCase();
+            expect(describe(store.searchAllByName(asked)).equals(describe(expected.searchAllByName(asked))),
+                    "searchAllByName(" + asked + ") differs");
+            String contact = contact(random);
+            expect(describe(store.findByIdentity(asked, contact)).equals(describe(expected.findByIdentity(asked, contact))),
+                    "findByIdentity(" + asked + ", " + contact + ") differs");
+        }
+
+        int from = random.nextInt(range);
+        int to = from + random.nextInt(500);
+        expect(describe(store.rangeById(from, to).collect(Collectors.toList()))
+                .equals(describe(expected.rangeById(from, to).collect(Collectors.toList()))),
+                "rangeById(" + from + ", " + to + ") differs");
+        int minAge = random.nextInt(90);
+        int maxAge = minAge + random.nextInt(10);
+        expect(describe(store.rangeByAge(minAge, maxAge)).equals(describe(expected.rangeByAge(minAge, maxAge))),
+                "rangeByAge(" + minAge + ", " + maxAge + ") differs");
+    }
+
+    private static Patient patient(int id, Random random) {
+        return new Patient(id, NAMES[random.nextInt(NAMES.length)], 1 + random.nextInt(90),
+                random.nextBoolean() ? "M" : "Female", ILLNESSES[random.nextInt(ILLNESSES.length)], contact(random),
+                random.nextBoolean(), random.nextInt(20), random.nextBoolean());
+    }
+
+    // A small pool, so (name, contact) pairs repeat across IDs
+    private static String contact(Random random) {
+        return random.nextBoolean() ? "0300" + random.nextInt(20) : "+92 300 " + random.nextInt(20);
+    }
+
+    private static String describe(Patient patient) {
+        return String.valueOf(patient);
+    }
+
+    private static String describe(List<Patient> patients) {
+        return patients.stream().map(OffHeapPatientStoreCheck::describe).collect(Collectors.joining("\n"));
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition)
+            throw new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,621 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+class PatientNode {
+    Patient data;
+    PatientNode left, right, parent;
+    boolean red;
+    String nameKey; // folded name this node is filed under in the name index
+    String identityKey; // (name, contact) key this node is filed under in the identity index
+    int ageKey; // age this node is filed under in the age index
+
+    public PatientNode(Patient data, PatientNode parent) {
+        this.data = data;
+        this.left = null;
+        this.right = null;
+        this.parent = parent;
+        this.red = true; // new nodes always start red
+    }
+}
+
+// Red-black tree keyed on patient ID. Patients.csv is stored in ID order, so a
+// plain BST built from it turns into a linked list; recolouring and rotations
+// keep the height below 2*log2(n) no matter what order the rows arrive in.
+class PatientBinaryST implements Iterable<Patient>, PatientStore {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private PatientNode root;
+    private int size;
+    private final IntHashMap<PatientNode> nodesById = new IntHashMap<>(); // primary-key index
+    private final PatientNameIndex nameIndex = new PatientNameIndex();
+    private final PatientNameIndex identityIndex = new PatientNameIndex();
+    private final TreeMap<Integer, Set<Integer>> idsByAge = new TreeMap<>(); // age bucket -> IDs
+    private int maxId; // highest ID ever inserted; not lowered on delete so IDs are never reissued
+
+    public void insert(Patient data) {
+        int id = data.getPatientId();
+        PatientNode parent = null;
+        PatientNode node = root;
+
+        while (node != null) {
+            parent = node;
+            int nodeId = node.data.getPatientId();
+            if (id < nodeId) {
+                node = node.left;
+            } else if (id > nodeId) {
+                node = node.right;
+            } else {
+                node.data = data; // same ID: replace the stored record
+                reindex(node);
+                return;
+            }
+        }
+
+        PatientNode created = new PatientNode(data, parent);
+        nodesById.put(id, created);
+        created.nameKey = PatientNameIndex.fold(data.getName());
+        created.identityKey = PatientNameIndex.identityKey(data.getName(), data.getEmergencyContact());
+        created.ageKey = data.getAge();
+        nameIndex.add(created.nameKey, id);
+        identityIndex.add(created.identityKey, id);
+        addToAgeBucket(created.ageKey, id);
+        maxId = Math.max(maxId, id);
+        if (parent == null) {
+            root = created;
+        } else if (id < parent.data.getPatientId()) {
+            parent.left = created;
+        } else {
+            parent.right = created;
+        }
+        size++;
+        fixAfterInsert(created);
+    }
+
+    public List<Patient> searchAllByName(String name) {
+        List<Patient> matches = new ArrayList<>();
+        for (int id : nameIndex.find(name)) {
+            matches.add(searchById(id));
+        }
+        return matches;
+    }
+
+    // Lowest-ID patient registered with this name and contact number, or null
+    public Patient findByIdentity(String name, String contact) {
+        Set<Integer> ids = identityIndex.findKey(PatientNameIndex.identityKey(name, contact));
+        return ids.isEmpty() ? null : searchById(ids.iterator().next());
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    // Call after editing a stored patient (or to swap in an edited copy) so the
+    // secondary indexes follow a changed name or contact
+    public boolean update(Patient patient) {
+        PatientNode node = findNode(patient.getPatientId());
+        if (node == null) {
+            return false;
+        }
+        node.data = patient;
+        reindex(node);
+        return true;
+    }
+
+    private void reindex(PatientNode node) {
+        int id = node.data.getPatientId();
+        String key = PatientNameIndex.fold(node.data.getName());
+        if (!key.equals(node.nameKey)) {
+            nameIndex.remove(node.nameKey, id);
+            nameIndex.add(key, id);
+            node.nameKey = key;
+        }
+
+        String identity = PatientNameIndex.identityKey(node.data.getName(), node.data.getEmergencyContact());
+        if (!identity.equals(node.identityKey)) {
+            identityIndex.remove(node.identityKey, id);
+            identityIndex.add(identity, id);
+            node.identityKey = identity;
+        }
+
+        int age = node.data.getAge();
+        if (age != node.ageKey) {
+            removeFromAgeBucket(node.ageKey, id);
+            addToAgeBucket(age, id);
+            node.ageKey = age;
+        }
+    }
+
+    private void addToAgeBucket(int age, int id) {
+        idsByAge.computeIfAbsent(age, k -> new TreeSet<>()).add(id);
+    }
+
+    private void removeFromAgeBucket(int age, int id) {
+        Set<Integer> ids = idsByAge.get(age);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            idsByAge.remove(age);
+        }
+    }
+
+    // Ordered cursor: starts at the first ID >= fromId and stops after toId
+    public Stream<Patient> rangeById(int fromId, int toId) {
+        PatientNode start = ceiling(fromId);
+        Iterator<Patient> cursor = new Iterator<>() {
+            private PatientNode current = start;
+
+            public boolean hasNext() {
+                return current != null && current.data.getPatientId() <= toId;
+            }
+
+            public Patient next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Patient data = current.data;
+                current = successor(current);
+                return data;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    // Only the age buckets inside the range are visited
+    public List<Patient> rangeByAge(int minAge, int maxAge) {
+        List<Patient> matches = new ArrayList<>();
+        if (minAge > maxAge)
+            return matches;
+        for (Set<Integer> ids : idsByAge.subMap(minAge, true, maxAge, true).values()) {
+            for (int id : ids) {
+                matches.add(searchById(id));
+            }
+        }
+        return matches;
+    }
+
+    public Patient searchById(int id) {
+        PatientNode node = findNode(id);
+        return node == null ? null : node.data;
+    }
+
+    // Point lookups go through the hash index; the tree is only walked for ordered access
+    private PatientNode findNode(int id) {
+        return nodesById.get(id);
+    }
+
+    // Walks successor links instead of recursing, so the stack stays flat for any tree size
+    public void traverseInOrder(Consumer<Patient> action) {
+        for (PatientNode node = first(); node != null; node = successor(node)) {
+            action.accept(node.data);
+        }
+    }
+
+    // Iterator to loop through patients in ID order
+    public Iterator<Patient> iterator() {
+        return new Iterator<>() {
+            private PatientNode current = first();
+
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            public Patient next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Patient data = current.data;
+                current = successor(current);
+                return data;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Patient> spliterator() {
+        return new PatientSpliterator(this, first(), null, 0, size);
+    }
+
+    public Stream<Patient> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<Patient> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    public List<Patient> getAllPatientsInOrder() {
+        List<Patient> result = new ArrayList<>();
+        traverseInOrder(result::add);
+        return result;
+    }
+
+    public boolean delete(int id) {
+        PatientNode node = findNode(id);
+        if (node == null) {
+            return false; // ID not found
+        }
+        nameIndex.remove(node.nameKey, id);
+        identityIndex.remove(node.identityKey, id);
+        removeFromAgeBucket(node.ageKey, id);
+        nodesById.remove(id);
+        deleteNode(node);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+        maxId = 0;
+        nodesById.clear();
+        nameIndex.clear();
+        identityIndex.clear();
+        idsByAge.clear();
+    }
+
+    // Walk the whole tree and throw IllegalStateException at the first broken
+    // invariant: BST order, parent links, no red node with a red child, equal
+    // black height on every path, and size and the ID index matching the nodes
+    void checkInvariants() {
+        if (root != null && (root.red == RED || root.parent != null))
+            throw new IllegalStateException("root must be black and have no parent");
+        int[] nodes = new int[1];
+        blackHeight(root, Long.MIN_VALUE, Long.MAX_VALUE, nodes);
+        if (nodes[0] != size || nodesById.size() != size)
+            throw new IllegalStateException("size " + size + " but " + nodes[0] + " nodes and "
+                    + nodesById.size() + " indexed IDs");
+    }
+
+    private int blackHeight(PatientNode node, long low, long high, int[] nodes) {
+        if (node == null)
+            return 1;
+        int id = node.data.getPatientId();
+        if (id <= low || id >= high)
+            throw new IllegalStateException("ID " + id + " is out of order");
+        if (nodesById.get(id) != node)
+            throw new IllegalStateException("ID index does not point at the node holding " + id);
+        if ((node.left != null && node.left.parent != node) || (node.right != null && node.right.parent != node))
+            throw new IllegalStateException("child of " + id + " has a wrong parent link");
+        if (node.red == RED && (colorOf(node.left) == RED || colorOf(node.right) == RED))
+            throw new IllegalStateException("red node " + id + " has a red child");
+        nodes[0]++;
+        int left = blackHeight(node.left, low, id, nodes);
+        int right = blackHeight(node.right, id, high, nodes);
+        if (left != right)
+            throw new IllegalStateException("black heights " + left + " and " + right + " below " + id);
+        return left + (node.red == RED ? 0 : 1);
+    }
+
+    // ------------------------- Rebalancing -------------------------
+
+    private void deleteNode(PatientNode node) {
+        size--;
+
+        // Two children: move the in-order successor's record here and unlink the successor instead
+        if (node.left != null && node.right != null) {
+            PatientNode successor = findMin(node.right);
+            node.data = successor.data;
+            node.nameKey = successor.nameKey;
+            node.identityKey = successor.identityKey;
+            node.ageKey = successor.ageKey;
+            nodesById.put(node.data.getPatientId(), node); // the successor's record now lives here
+            node = successor;
+        }
+
+        PatientNode replacement = (node.left != null) ? node.left : node.right;
+
+        if (replacement != null) {
+            replacement.parent = node.parent;
+            if (node.parent == null)
+                root = replacement;
+            else if (node == node.parent.left)
+                node.parent.left = replacement;
+            else
+                node.parent.right = replacement;
+
+            node.left = node.right = node.parent = null;
+            if (node.red == BLACK)
+                fixAfterDelete(replacement);
+        } else if (node.parent == null) {
+            root = null; // it was the only node
+        } else {
+            // Leaf: use it as its own phantom replacement before unlinking
+            if (node.red == BLACK)
+                fixAfterDelete(node);
+
+            if (node.parent != null) {
+                if (node == node.parent.left)
+                    node.parent.left = null;
+                else if (node == node.parent.right)
+                    node.parent.right = null;
+                node.parent = null;
+            }
+        }
+    }
+
+    private PatientNode first() {
+        return root == null ? null : findMin(root);
+    }
+
+    // Node with the smallest ID >= id, or null
+    private PatientNode ceiling(int id) {
+        PatientNode node = root;
+        PatientNode best = null;
+        while (node != null) {
+            int nodeId = node.data.getPatientId();
+            if (id < nodeId) {
+                best = node;
+                node = node.left;
+            } else if (id > nodeId) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return best;
+    }
+
+    private static PatientNode findMin(PatientNode node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static PatientNode successor(PatientNode node) {
+        if (node.right != null)
+            return findMin(node.right);
+
+        PatientNode child = node;
+        PatientNode parent = node.parent;
+        while (parent != null && child == parent.right) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Splits the ID range [current, fence) at subtree roots, the same way TreeMap's
+    // spliterators do, so parallel streams hand roughly balanced halves to each core.
+    // Like the tree itself, it must not be used while the tree is being modified.
+    static final class PatientSpliterator implements Spliterator<Patient> {
+        private final PatientBinaryST tree;
+        private PatientNode current; // next node to visit
+        private PatientNode fence;   // first node past the range, or null for the end
+        private int side;            // 0: whole tree, 1: right part of a split, -1: left part
+        private int est;             // estimated number of patients left
+
+        PatientSpliterator(PatientBinaryST tree, PatientNode current, PatientNode fence, int side, int est) {
+            this.tree = tree;
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.est = est;
+        }
+
+        @Override
+        public Spliterator<Patient> trySplit() {
+            PatientNode e = current, f = fence;
+            PatientNode s = (e == null || e == f) ? null
+                    : (side == 0) ? tree.root
+                    : (side > 0) ? e.right
+                    : (f != null) ? f.left
+                    : null;
+            if (s != null && s != e && s != f && e.data.getPatientId() < s.data.getPatientId()) {
+                side = 1;
+                est >>>= 1;
+                PatientSpliterator prefix = new PatientSpliterator(tree, e, s, -1, est);
+                current = s;
+                return prefix;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Patient> action) {
+            PatientNode e = current;
+            if (e == null || e == fence)
+                return false;
+            current = successor(e);
+            action.accept(e.data);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Patient> action) {
+            PatientNode f = fence;
+            for (PatientNode e = current; e != null && e != f; e = successor(e)) {
+                action.accept(e.data);
+            }
+            current = f;
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0)
+                    | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Patient> getComparator() {
+            return Comparator.comparingInt(Patient::getPatientId);
+        }
+    }
+
+    private void fixAfterInsert(PatientNode x) {
+        while (x != null && x != root && x.parent.red == RED) {
+            if (parentOf(x) == leftOf(parentOf(parentOf(x)))) {
+                PatientNode uncle = rightOf(parentOf(parentOf(x)));
+                if (colorOf(uncle) == RED) {
+                    setColor(parentOf(x), BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == rightOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateLeft(x);
+                    }
+                    setColor(parentOf(x), BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    rotateRight(parentOf(parentOf(x)));
+                }
+            } else {
+                PatientNode uncle = leftOf(parentOf(parentOf(x)));
+                if (colorOf(uncle) == RED) {
+                    setColor(parentOf(x), BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == leftOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateRight(x);
+                    }
+                    setColor(parentOf(x), BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    rotateLeft(parentOf(parentOf(x)));
+                }
+            }
+        }
+        root.red = BLACK;
+    }
+
+    private void fixAfterDelete(PatientNode x) {
+        while (x != root && colorOf(x) == BLACK) {
+            if (x == leftOf(parentOf(x))) {
+                PatientNode sibling = rightOf(parentOf(x));
+
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(x), RED);
+                    rotateLeft(parentOf(x));
+                    sibling = rightOf(parentOf(x));
+                }
+
+                if (colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    x = parentOf(x);
+                } else {
+                    if (colorOf(rightOf(sibling)) == BLACK) {
+                        setColor(leftOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(x));
+                    }
+                    setColor(sibling, colorOf(parentOf(x)));
+                    setColor(parentOf(x), BLACK);
+                    setColor(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(x));
+                    x = root;
+                }
+            } else {
+                PatientNode sibling = leftOf(parentOf(x));
+
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(x), RED);
+                    rotateRight(parentOf(x));
+                    sibling = leftOf(parentOf(x));
+                }
+
+                if (colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    x = parentOf(x);
+                } else {
+                    if (colorOf(leftOf(sibling)) == BLACK) {
+                        setColor(rightOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(x));
+                    }
+                    setColor(sibling, colorOf(parentOf(x)));
+                    setColor(parentOf(x), BLACK);
+                    setColor(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(x));
+                    x = root;
+                }
+            }
+        }
+        setColor(x, BLACK);
+    }
+
+    private void rotateLeft(PatientNode p) {
+        if (p == null)
+            return;
+        PatientNode r = p.right;
+        p.right = r.left;
+        if (r.left != null)
+            r.left.parent = p;
+        r.parent = p.parent;
+        if (p.parent == null)
+            root = r;
+        else if (p.parent.left == p)
+            p.parent.left = r;
+        else
+            p.parent.right = r;
+        r.left = p;
+        p.parent = r;
+    }
+
+    private void rotateRight(PatientNode p) {
+        if (p == null)
+            return;
+        PatientNode l = p.left;
+        p.left = l.right;
+        if (l.right != null)
+            l.right.parent = p;
+        l.parent = p.parent;
+        if (p.parent == null)
+            root = l;
+        else if (p.parent.right == p)
+            p.parent.right = l;
+        else
+            p.parent.left = l;
+        l.right = p;
+        p.parent = l;
+    }
+
+    // Null-safe helpers: missing children count as black leaves
+    private static boolean colorOf(PatientNode node) {
+        return node == null ? BLACK : node.red;
+    }
+
+    private static PatientNode parentOf(PatientNode node) {
+        return node == null ? null : node.parent;
+    }
+
+    private static void setColor(PatientNode node, boolean color) {
+        if (node != null)
+            node.red = color;
+    }
+
+    private static PatientNode leftOf(PatientNode node) {
+        return node == null ? null : node.left;
+    }
+
+    private static PatientNode rightOf(PatientNode node) {
+        return node == null ? null : node.right;
+    }
+}
@@ -0,0 +1,242 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PatientColumnStore.java
+ *
+ * Read-only, column-oriented copy of the patient registry for analytical scans
+ * (ward planning, reports). Instead of chasing Patient objects through the
+ * tree, every attribute is kept in its own array, one slot per patient in ID
+ * order:
+ *
+ * ages / visits / ids : int[]
+ * vegetarian, wasAdmittedBefore : packed bitsets (long[], one bit per patient)
+ * gender / illness : int[] codes from a dictionary owned by this copy
+ *
+ * Filters return a selection bitset over those slots, selections are combined
+ * with and/or/not a 64-bit word at a time, and aggregates are tight loops over
+ * the selected slots. The row objects in PatientRepository stay the source of
+ * truth; the repository rebuilds this copy lazily after the registry changes.
+ */
+class PatientColumnStore {
+    private final int size;
+    private final int[] ids;
+    private final int[] ages;
+    private final int[] visits;
+    private final long[] vegetarian;
+    private final long[] admittedBefore;
+    private final int[] genderCodes;
+    private final int[] illnessCodes;
+
+    private final StringDictionary dictionary = new StringDictionary(); // rebuilt with the columns, so typed values do not pile up
+
+    private PatientColumnStore(int capacity) {
+        ids = new int[capacity];
+        ages = new int[capacity];
+        visits = new int[capacity];
+        vegetarian = new long[words(capacity)];
+        admittedBefore = new long[words(capacity)];
+        genderCodes = new int[capacity];
+        illnessCodes = new int[capacity];
+        size = capacity;
+    }
+
+    /** Build the columns from the registry, in ascending patient ID order */
+    static PatientColumnStore build(PatientRepository patients) {
+        PatientColumnStore store = new PatientColumnStore(patients.size());
+        int[] row = { 0 };
+        patients.traverseInOrder(patient -> {
+            if (row[0] < store.size) {
+                store.set(row[0]++, patient);
+            }
+        });
+        return store;
+    }
+
+    private void set(int row, Patient patient) {
+        ids[row] = patient.getPatientId();
+        ages[row] = patient.getAge();
+        visits[row] = patient.getNumberOfVisits();
+        if (patient.isVegetarian())
+            vegetarian[row >>> 6] |= 1L << row;
+        if (patient.WasAdmittedBefore())
+            admittedBefore[row >>> 6] |= 1L << row;
+        genderCodes[row] = dictionary.code(trim(patient.getGender()));
+        illnessCodes[row] = dictionary.code(trim(patient.getIllness()));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ****************** FILTERS ******************
+
+    /** Every patient */
+    public long[] all() {
+        long[] selection = new long[words(size)];
+        for (int i = 0; i < selection.length; i++)
+            selection[i] = -1L;
+        clearTail(selection);
+        return selection;
+    }
+
+    /** Patients whose age is within [minAge, maxAge] */
+    public long[] ageBetween(int minAge, int maxAge) {
+        long[] selection = new long[words(size)];
+        for (int row = 0; row < size; row++) {
+            int age = ages[row];
+            if (age >= minAge && age <= maxAge)
+                selection[row >>> 6] |= 1L << row;
+        }
+        return selection;
+    }
+
+    public long[] vegetarian() {
+        return vegetarian.clone();
+    }
+
+    public long[] admittedBefore() {
+        return admittedBefore.clone();
+    }
+
+    public long[] genderIs(String gender) {
+        return codeMatches(genderCodes, gender);
+    }
+
+    public long[] illnessIs(String illness) {
+        return codeMatches(illnessCodes, illness);
+    }
+
+    // Resolve the (case-insensitive) value to the set of matching codes once, then scan ints only
+    private long[] codeMatches(int[] codes, String value) {
+        String wanted = trim(value);
+        boolean[] matching = new boolean[dictionary.size()];
+        for (int code = 0; code < matching.length; code++) {
+            matching[code] = dictionary.value(code).equalsIgnoreCase(wanted);
+        }
+
+        long[] selection = new long[words(size)];
+        for (int row = 0; row < size; row++) {
+            if (matching[codes[row]])
+                selection[row >>> 6] |= 1L << row;
+        }
+        return selection;
+    }
+
+    // ****************** COMBINING SELECTIONS ******************
+
+    public static long[] and(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = a[i] & b[i];
+        return result;
+    }
+
+    public static long[] or(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = a[i] | b[i];
+        return result;
+    }
+
+    public long[] not(long[] a) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = ~a[i];
+        clearTail(result);
+        return result;
+    }
+
+    // ****************** AGGREGATES ******************
+
+    public static int count(long[] selection) {
+        int total = 0;
+        for (long word : selection)
+            total += Long.bitCount(word);
+        return total;
+    }
+
+    public double averageAge(long[] selection) {
+        return average(ages, selection);
+    }
+
+    public double averageVisits(long[] selection) {
+        return average(visits, selection);
+    }
+
+    private static double average(int[] column, long[] selection) {
+        long sum = 0;
+        int count = 0;
+        for (int w = 0; w < selection.length; w++) {
+            long word = selection[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                sum += column[row];
+                count++;
+                word &= word - 1; // drop the lowest set bit
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Patient IDs of the selected slots, ascending */
+    public int[] patientIds(long[] selection) {
+        int[] result = new int[count(selection)];
+        int next = 0;
+        for (int w = 0; w < selection.length; w++) {
+            long word = selection[w];
+            while (word != 0) {
+                result[next++] = ids[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    /** Number of selected patients per illness, most common first */
+    public Map<String, Integer> countByIllness(long[] selection) {
+        int[] counts = new int[dictionary.size()];
+        for (int w = 0; w < selection.length; w++) {
+            long word = selection[w];
+            while (word != 0) {
+                counts[illnessCodes[(w << 6) + Long.numberOfTrailingZeros(word)]]++;
+                word &= word - 1;
+            }
+        }
+
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0)
+                codes.add(code);
+        }
+        codes.sort((x, y) -> Integer.compare(counts[y], counts[x]));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code : codes)
+            result.put(dictionary.value(code), counts[code]);
+        return result;
+    }
+
+    // ****************** HELPERS ******************
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    // Keep bits past the last patient at zero so counts stay exact
+    private void clearTail(long[] selection) {
+        int used = size & 63;
+        if (used != 0 && selection.length > 0)
+            selection[selection.length - 1] &= (1L << used) - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package HospitalManagement.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * PatientNameIndex.java
+ *
+ * Secondary index from a case-folded patient name to the IDs of every patient
+ * registered under that name. Name searches become a single hash probe instead
+ * of a walk over the whole patient tree. The owning tree is responsible for
+ * calling add/remove whenever a patient is inserted, deleted or renamed.
+ *
+ * The same structure, keyed with identityKey(), backs the (name, contact)
+ * lookup used when booking appointments.
+ */
+class PatientNameIndex {
+    private final Map<String, Set<Integer>> idsByName = new HashMap<>();
+
+    /** Normalise a name the same way for indexing and for lookups */
+    static String fold(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Composite key for the (name, contact) identity index */
+    static String identityKey(String name, String contact) {
+        return fold(name) + "|" + (contact == null ? "" : contact.trim());
+    }
+
+    public void add(String nameKey, int patientId) {
+        idsByName.computeIfAbsent(nameKey, k -> new TreeSet<>()).add(patientId);
+    }
+
+    public void remove(String nameKey, int patientId) {
+        Set<Integer> ids = idsByName.get(nameKey);
+        if (ids == null)
+            return;
+        ids.remove(patientId);
+        if (ids.isEmpty()) {
+            idsByName.remove(nameKey); // don't keep empty buckets for old names around
+        }
+    }
+
+    /** IDs registered under the given name, in ascending order */
+    public Set<Integer> find(String name) {
+        return findKey(fold(name));
+    }
+
+    /** IDs filed under an already-normalised key, in ascending order */
+    public Set<Integer> findKey(String key) {
+        Set<Integer> ids = idsByName.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    public void clear() {
+        idsByName.clear();
+    }
+}
@@ -0,0 +1,430 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * PatientRepository.java
+ *
+ * The one in-memory copy of the patient registry, shared by PatientService and
+ * DoctorService. Patients.csv is parsed once per process, all lookups go
+ * through the indexed PatientStore, and every change to the registry is
+ * persisted from here, so edits made in one portal are visible in the other
+ * straight away.
+ *
+ * The store is the on-heap PatientBinaryST unless the JVM is started with
+ * -Dhospital.patientStore=offheap, which selects OffHeapPatientStore; that
+ * also needs -XX:MaxDirectMemorySize, since direct memory is otherwise capped
+ * at the heap size (see OffHeapPatientStore).
+ *
+ * Patients.csv is a base file that is no longer rewritten on every change.
+ * Registrations and edits append an UPSERT record with the whole row, and
+ * deletions a DELETE tombstone, to data/Patients.log (see AppendLog), so a
+ * single-patient change costs one small append whatever the registry size.
+ * Loading reads the base file and replays the log over it. A background
+ * compactor checks every hospital.patientCompactSeconds (default 30) and,
+ * once hospital.patientCompactAfter records (default 200) have piled up,
+ * writes a fresh base file from memory and drops the records it now holds.
+ * Those include DELETE tombstones, which were the only record of a deleted
+ * patient's ID, so the log's checkpoint marker carries the patient ID
+ * high-water mark (maxId=N) and loading seeds new IDs from it: a deleted ID is
+ * never handed out again, even after compaction and a restart.
+ * The base file is read from its binary snapshot (see BinarySnapshot) while
+ * that is current; compaction writes the snapshot along with the CSV.
+ * A Patients.csv row that fails to parse is skipped and the rest still load,
+ * but that row now exists only in the file, so nothing rewrites the file (no
+ * compaction, no snapshot) until a reload reads it in full; changes are still
+ * appended to the log. The skipped row's ID, if it has one, is not reissued.
+ */
+class PatientRepository {
+    private static final String PATIENTS_CSV_FILE = "data/Patients.csv";
+    private static final String PATIENTS_TEMP_FILE = "data/Patients_temp.csv";
+    private static final String PATIENTS_LOG_FILE = "data/Patients.log";
+    private static final String HEADER = "PatientID,Name,Age,Gender,Illness,EmergencyContact,Vegetarian,NumberOfVisits,WasAdmittedBefore";
+    private static final String SNAPSHOT = "patients";
+    private static final String UPSERT = "UPSERT";
+    private static final String DELETE = "DELETE";
+    private static final String MAX_ID_KEY = "maxId=";
+    private static final int COMPACT_SECONDS = Math.max(1, Integer.getInteger("hospital.patientCompactSeconds", 30));
+    private static final int COMPACT_AFTER = Math.max(1, Integer.getInteger("hospital.patientCompactAfter", 200));
+
+    private static PatientRepository instance;
+    private static final StringDictionary dictionary = StringDictionary.SHARED;
+
+    private final PatientStore store = createStore();
+    private final AppendLog log = new AppendLog(PATIENTS_LOG_FILE, 1); // every change is synced on its own
+    private int modCount; // bumped on every change so derived copies know when they are stale
+    private PatientColumnStore columns;
+    private int columnsBuiltAt = -1;
+    private boolean csvIncomplete; // the last load() skipped rows it could not read, so the file holds more than memory
+
+    private PatientRepository() {
+    }
+
+    private static PatientStore createStore() {
+        if ("offheap".equalsIgnoreCase(System.getProperty("hospital.patientStore"))) {
+            return new OffHeapPatientStore();
+        }
+        return new PatientBinaryST();
+    }
+
+    /** Shared repository; loads Patients.csv the first time it is requested */
+    public static synchronized PatientRepository getInstance() {
+        if (instance == null) {
+            instance = new PatientRepository();
+            instance.load();
+            instance.startCompactor();
+        }
+        return instance;
+    }
+
+    private void startCompactor() {
+        ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "patient-log-compactor");
+            thread.setDaemon(true); // never keeps the program from exiting
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            if (log.size() >= COMPACT_AFTER && isCsvComplete()) {
+                compact();
+            }
+        }, COMPACT_SECONDS, COMPACT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // ****************** LOADING ******************
+
+    /**
+     * (Re)load every patient from Patients.csv and replay the change log over
+     * it, replacing what is in memory. Rows go into the store as they are
+     * decoded, so the registry is never also held as a list on the heap.
+     */
+    public synchronized void load() {
+        modCount++;
+        csvIncomplete = false;
+        store.clear();
+        if (!BinarySnapshot.read(SNAPSHOT, PATIENTS_CSV_FILE, PatientRepository::readSnapshotRow, store::insert)) {
+            store.clear(); // whatever a damaged snapshot delivered before it failed
+            if (readCsv(store::insert)) {
+                BinarySnapshot.write(SNAPSHOT, PATIENTS_CSV_FILE, storedRows(), PatientRepository::writeSnapshotRow);
+            }
+        }
+        log.recover(this::replay);
+        Patient.ensureIdCounterAtLeast(store.getMaxId()); // seed new IDs from the high-water mark
+        Patient.ensureIdCounterAtLeast(checkpointMaxId()); // and from IDs whose tombstones were compacted away
+    }
+
+    // maxId recorded by the last compaction, 0 if there is none
+    private int checkpointMaxId() {
+        String checkpoint = log.checkpoint();
+        if (!checkpoint.startsWith(MAX_ID_KEY))
+            return 0;
+        try {
+            return Integer.parseInt(checkpoint.substring(MAX_ID_KEY.length()).trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring malformed patient log checkpoint: " + checkpoint);
+            return 0;
+        }
+    }
+
+    // Parse Patients.csv, handing each patient to sink; false unless the whole file was read.
+    // Rows that fail to parse are skipped and mark the registry incomplete (see isCsvComplete()).
+    private boolean readCsv(Consumer<Patient> sink) {
+        try (CsvReader reader = new CsvReader(PATIENTS_CSV_FILE)) {
+            while (reader.nextRow()) {
+                // Skip header (empty lines are skipped by the reader)
+                if (reader.rowStartsWith("patientid")) {
+                    continue;
+                }
+
+                try {
+                    Patient patient = read(reader);
+                    if (patient != null) {
+                        sink.accept(patient);
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Error loading patients: " + e.getMessage());
+                    csvIncomplete = true;
+                    reserveId(reader);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("Patients.csv not found. Patient search may be limited.");
+            return false;
+        } catch (IOException e) {
+            System.out.println("Error loading patients: " + e.getMessage());
+            csvIncomplete = true;
+        }
+        if (csvIncomplete) {
+            System.out.println("Patients.csv will not be rewritten until it loads without errors.");
+        }
+        return !csvIncomplete;
+    }
+
+    // Keep a row that failed to parse from having its ID handed to a new patient
+    private static void reserveId(CsvReader row) {
+        row.rewind();
+        try {
+            Patient.ensureIdCounterAtLeast(row.nextInt());
+        } catch (NumberFormatException e) {
+            // the ID itself is unreadable, so no valid ID is taken by this row
+        }
+    }
+
+    // The store's patients in ID order, read as they are iterated
+    private Iterable<Patient> storedRows() {
+        return () -> store.stream().iterator();
+    }
+
+    // Apply one logged change on top of the base file
+    private void replay(AppendLog.Record record) {
+        try {
+            switch (record.op) {
+                case UPSERT:
+                    Patient patient = parse(record.payload);
+                    if (patient != null) {
+                        store.delete(patient.getPatientId());
+                        store.insert(patient);
+                    }
+                    break;
+                case DELETE:
+                    int id = Integer.parseInt(record.payload.trim());
+                    store.delete(id);
+                    Patient.ensureIdCounterAtLeast(id); // a deleted patient's ID is never reused
+                    break;
+                default:
+                    System.out.println("Skipping unknown patient log record " + record.seq + ".");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Error replaying patient log record " + record.seq + ": " + e.getMessage());
+        }
+    }
+
+    // ****************** LOOKUPS ******************
+
+    public Patient findById(int id) {
+        return store.searchById(id);
+    }
+
+    public List<Patient> findByName(String name) {
+        return store.searchAllByName(name);
+    }
+
+    public Patient findByIdentity(String name, String contact) {
+        return store.findByIdentity(name, contact);
+    }
+
+    public int getMaxId() {
+        return store.getMaxId();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public List<Patient> getAllInOrder() {
+        return store.getAllPatientsInOrder();
+    }
+
+    /** Patients with IDs in [fromId, toId], ascending */
+    public Stream<Patient> rangeById(int fromId, int toId) {
+        return store.rangeById(fromId, toId);
+    }
+
+    /** Patients aged minAge to maxAge inclusive, youngest first */
+    public List<Patient> rangeByAge(int minAge, int maxAge) {
+        return store.rangeByAge(minAge, maxAge);
+    }
+
+    public void traverseInOrder(Consumer<Patient> action) {
+        store.traverseInOrder(action);
+    }
+
+    public Stream<Patient> stream() {
+        return store.stream();
+    }
+
+    public Stream<Patient> parallelStream() {
+        return store.parallelStream();
+    }
+
+    /** Columnar copy of the registry for scans and reports, rebuilt only after a change */
+    public PatientColumnStore columns() {
+        if (columns == null || columnsBuiltAt != modCount) {
+            columns = PatientColumnStore.build(this);
+            columnsBuiltAt = modCount;
+        }
+        return columns;
+    }
+
+    // ****************** WRITES ******************
+
+    /** Register a new patient and log it */
+    public synchronized void add(Patient patient) {
+        modCount++;
+        store.insert(patient);
+        logChange(UPSERT, toCsvRow(patient));
+    }
+
+    /** Re-file an edited patient in the indexes and log the new row */
+    public synchronized boolean update(Patient patient) {
+        if (!store.update(patient)) {
+            return false;
+        }
+        modCount++;
+        logChange(UPSERT, toCsvRow(patient));
+        return true;
+    }
+
+    /** Remove a patient from memory and log a tombstone for it */
+    public synchronized boolean delete(int id) {
+        if (!store.delete(id)) {
+            return false;
+        }
+        modCount++;
+        logChange(DELETE, String.valueOf(id));
+        return true;
+    }
+
+    private void logChange(String op, String payload) {
+        if (log.append(op, payload) >= 0)
+            return;
+        if (csvIncomplete) {
+            System.out.println("Patient change could not be logged, and Patients.csv did not load in full;"
+                    + " the change will be lost on restart.");
+            return;
+        }
+        System.out.println("Patient change could not be logged; writing Patients.csv instead.");
+        compact();
+    }
+
+    /** False while Patients.csv holds rows the last load could not read */
+    public synchronized boolean isCsvComplete() {
+        return !csvIncomplete;
+    }
+
+    /**
+     * Write a fresh Patients.csv and its snapshot straight from the store and
+     * drop the log records they now hold, keeping the ID high-water mark in
+     * the checkpoint marker. The lock is held throughout, so the registry is
+     * never copied; writers wait until the files are written. Does nothing
+     * while the last load did not read all of Patients.csv (see
+     * isCsvComplete()), since the rewrite would drop the rows it missed.
+     */
+    public synchronized void compact() {
+        if (csvIncomplete)
+            return; // the rows that failed to load exist only in the file
+        long throughSeq = log.lastSeq();
+        int maxId = Math.max(Patient.getIdHighWater(), store.getMaxId());
+
+        File target = new File(PATIENTS_CSV_FILE);
+        File temp = new File(PATIENTS_TEMP_FILE);
+        try (FileOutputStream out = new FileOutputStream(temp);
+             PrintWriter writer = new PrintWriter(new OutputStreamWriter(out))) {
+            writer.println(HEADER);
+            store.traverseInOrder(patient -> writer.println(toCsvRow(patient)));
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("write failed");
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("Error compacting Patients.csv: " + e.getMessage());
+            return;
+        }
+
+        // Replace old file with updated file
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Failed to replace Patients.csv: " + e.getMessage());
+            return;
+        }
+        BinarySnapshot.write(SNAPSHOT, PATIENTS_CSV_FILE, storedRows(), PatientRepository::writeSnapshotRow);
+        log.reset(throughSeq, MAX_ID_KEY + maxId);
+    }
+
+    private static void writeSnapshotRow(BinarySnapshot.Output out, Patient p) throws IOException {
+        out.writeInt(p.getPatientId());
+        out.writeString(p.getName());
+        out.writeInt(p.getAge());
+        out.writeString(p.getGender());
+        out.writeString(p.getIllness());
+        out.writeString(p.getEmergencyContact());
+        out.writeBoolean(p.isVegetarian());
+        out.writeInt(p.getNumberOfVisits());
+        out.writeBoolean(p.WasAdmittedBefore());
+    }
+
+    private static Patient readSnapshotRow(BinarySnapshot.Input in) {
+        return new Patient(in.readInt(), in.readString(), in.readInt(), dictionary.intern(in.readString()),
+                in.readString(), in.readString(), in.readBoolean(), in.readInt(),
+                in.readBoolean());
+    }
+
+    // The reader's current row; null if it does not have all 9 columns
+    private static Patient read(CsvReader row) {
+        if (row.fieldCount() < 9) {
+            return null; // Expecting 9 columns
+        }
+
+        int id = row.nextInt();
+        String name = row.nextString();
+        int age = row.nextInt();
+        String gender = dictionary.intern(row.nextString());
+        String illness = row.nextString(); // free text, not interned
+        String contact = row.nextString();
+        boolean vegetarian = row.nextBoolean();
+        int visits = row.nextInt();
+        boolean admittedBefore = row.nextBoolean();
+
+        return new Patient(id, name, age, gender, illness, contact, vegetarian, visits, admittedBefore);
+    }
+
+    // One Patients.csv row given as text (log records); null if it does not have all 9 columns
+    private static Patient parse(String line) {
+        String[] data = line.split(",", -1); // -1 to include trailing empty fields
+        if (data.length < 9) {
+            return null; // Expecting 9 columns
+        }
+
+        int id = Integer.parseInt(data[0].trim());
+        String name = data[1].trim();
+        int age = Integer.parseInt(data[2].trim());
+        String gender = dictionary.intern(data[3].trim());
+        String illness = data[4].trim();
+        String contact = data[5].trim();
+        boolean vegetarian = Boolean.parseBoolean(data[6].trim());
+        int visits = Integer.parseInt(data[7].trim());
+        boolean admittedBefore = Boolean.parseBoolean(data[8].trim());
+
+        return new Patient(id, name, age, gender, illness, contact, vegetarian, visits, admittedBefore);
+    }
+
+    private static String toCsvRow(Patient p) {
+        return String.format("%d,%s,%d,%s,%s,%s,%b,%d,%b",
+                p.getPatientId(),
+                p.getName(),
+                p.getAge(),
+                p.getGender(),
+                p.getIllness(),
+                p.getEmergencyContact(),
+                p.isVegetarian(),
+                p.getNumberOfVisits(),
+                p.WasAdmittedBefore());
+    }
+}
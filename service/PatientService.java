@@ -6,319 +6,47 @@ import HospitalManagement.model.Doctor;
 import HospitalManagement.model.Patient;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-
-//self made classes being used
-class AppointmentLinkedList implements Iterable<Appointment> {
-
-    private class Node {
-        Appointment data;
-        Node next;
-
-        Node(Appointment data) {
-            this.data = data;
-            this.next = null;
-        }
-    }
-
-    private Node head;
-    private Node tail;
-
-    // Enqueue: Add to rear
-    public void enqueue(Appointment appointment) {
-        Node newNode = new Node(appointment);
-        if (tail == null) {
-            head = tail = newNode;
-            return;
-        }
-        tail.next = newNode;
-        tail = newNode;
-    }
-
-    // Dequeue: Remove from front
-    public Appointment dequeue() {
-        if (head == null) {
-            throw new NoSuchElementException("Queue is empty");
-        }
-        Appointment result = head.data;
-        head = head.next;
-        if (head == null) {
-            tail = null; // reset tail when queue becomes empty
-        }
-        return result;
-    }
-
-    // Peek at front (next appointment)
-    public Appointment peek() {
-        if (head == null)
-            return null;
-        return head.data;
-    }
-
-    // Check if empty
-    public boolean isEmpty() {
-        return head == null;
-    }
-
-    // Print all appointments
-    public void printAll() {
-        Node current = head;
-        while (current != null) {
-            System.out.println(current.data); // Ensure Appointment overrides toString()
-            current = current.next;
-        }
-    }
-
-    public void clear() {
-        head = null;
-        tail = null;
-    }
-
-    // Iterator to loop through appointments
-    public Iterator<Appointment> iterator() {
-        return new Iterator<>() {
-            private Node current = head;
-
-            public boolean hasNext() {
-                return current != null;
-            }
-
-            public Appointment next() {
-                if (!hasNext())
-                    throw new NoSuchElementException();
-                Appointment data = current.data;
-                current = current.next;
-                return data;
-            }
-        };
-    }
-}
-
-class PatientNode {
-    Patient data;
-    PatientNode left, right;
-
-    public PatientNode(Patient data) {
-        this.data = data;
-        this.left = null;
-        this.right = null;
-    }
-}
-
-class PatientBinaryST {
-    private PatientNode root;
-
-    public void insert(Patient data) {
-        root = insertRecursive(root, data);
-    }
-
-    private PatientNode insertRecursive(PatientNode node, Patient data) {
-        if (node == null)
-            return new PatientNode(data);
-
-        if (data.getPatientId() < node.data.getPatientId()) {
-            node.left = insertRecursive(node.left, data);
-        } else {
-            node.right = insertRecursive(node.right, data);
-        }
-        return node;
-    }
-
-    public List<Patient> searchAllByName(String name) {
-        List<Patient> matches = new ArrayList<>();
-        searchAllByNameHelper(root, name, matches);
-        return matches;
-    }
-
-    private void searchAllByNameHelper(PatientNode node, String name, List<Patient> result) {
-        if (node == null)
-            return;
-
-        if (node.data.getName().equalsIgnoreCase(name)) {
-            result.add(node.data);
-        }
-
-        searchAllByNameHelper(node.left, name, result);
-        searchAllByNameHelper(node.right, name, result);
-    }
-
-    public Patient searchById(int id) {
-        return searchByIdRecursive(root, id);
-    }
-
-    private Patient searchByIdRecursive(PatientNode node, int id) {
-        if (node == null)
-            return null;
-
-        if (node.data.getPatientId() == id)
-            return node.data;
-
-        Patient found = searchByIdRecursive(node.left, id);
-        if (found != null)
-            return found;
-
-        return searchByIdRecursive(node.right, id);
-    }
-
-    public void traverseInOrder(Consumer<Patient> action) {
-        traverseInOrderRecursive(root, action);
-    }
-
-    private void traverseInOrderRecursive(PatientNode node, Consumer<Patient> action) {
-        if (node == null)
-            return;
-
-        // Traverse left
-        traverseInOrderRecursive(node.left, action);
-
-        // Apply action on current node
-        action.accept(node.data);
-
-        // Traverse right
-        traverseInOrderRecursive(node.right, action);
-    }
-
-    public List<Patient> getAllPatientsInOrder() {
-        System.out.println("Inside Function");
-        List<Patient> result = new ArrayList<>();
-
-        traverseInOrder(result::add);
-        return result;
-    }
-
-    public boolean delete(int id) {
-        if (searchById(id) == null) {
-            return false; // ID not found
-        }
-        root = deleteRecursive(root, id);
-        return true;
-    }
-
-    private PatientNode deleteRecursive(PatientNode node, int id) {
-        if (node == null)
-            return null;
-
-        if (id < node.data.getPatientId()) {
-            node.left = deleteRecursive(node.left, id);
-        } else if (id > node.data.getPatientId()) {
-            node.right = deleteRecursive(node.right, id);
-        } else {
-            // Node to delete found
-
-            // Case 1: No child
-            if (node.left == null && node.right == null)
-                return null;
-
-            // Case 2: One child
-            if (node.left == null)
-                return node.right;
-            if (node.right == null)
-                return node.left;
-
-            // Case 3: Two children – find inorder successor (smallest in right subtree)
-            PatientNode successor = findMin(node.right);
-            node.data = successor.data;
-            node.right = deleteRecursive(node.right, successor.data.getPatientId());
-        }
-
-        return node;
-    }
-
-    private PatientNode findMin(PatientNode node) {
-        while (node.left != null) {
-            node = node.left;
-        }
-        return node;
-    }
-
-    public void clear() {
-        root = null;
-    }
-
-}
+import java.util.stream.Collectors;
 
 // Main execution
 public class PatientService {
     // Variables
-    private static final String PATIENTS_CSV_FILE = "data/Patients.csv";
-    private static final String APPOINTMENTS_CSV_FILE = "data/Appointments.csv";
-    private static PatientBinaryST patientTree = new PatientBinaryST();
+    private static final AppointmentArchive archive = AppointmentArchive.getInstance(); // Appointments.csv + history
+    private static final int SUGGESTED_SLOTS = 5; // alternatives offered when a slot is taken
+    private static final WalkInQueue<WalkInToken> walkIns = new WalkInQueue<>(); // OPD tokens, shared by all counters
+    private static final AtomicInteger nextWalkInToken = new AtomicInteger(1); // in memory only, restarts each run
+    private static final PatientRepository patients = PatientRepository.getInstance(); // shared with DoctorService
     private static Scanner scanner = new Scanner(System.in);
-    private static AppointmentLinkedList appointments = new AppointmentLinkedList();
+    private static final AppointmentRepository appointments = AppointmentRepository.getInstance(); // shared with DoctorService
 
-    // Constructor to initialize
+    // Constructor to initialize (the shared patient and appointment data are loaded once per process)
     public PatientService() {
-        loadPatients();
-        loadAppointments();
     }
 
     // methods to initialize structures
+    // Reload the shared patient registry from disk (it is loaded once on first use)
     public void loadPatients() {
-        patientTree.clear();
-        try (BufferedReader reader = new BufferedReader(new FileReader(PATIENTS_CSV_FILE))) {
-            String line;
-            reader.readLine(); // skip header
-
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-
-                int id = Integer.parseInt(data[0]);
-                String name = data[1];
-                int age = Integer.parseInt(data[2]);
-                String gender = data[3];
-                String illness = data[4];
-                String contact = data[5];
-                boolean vegetarian = Boolean.parseBoolean(data[6]);
-                int visits = Integer.parseInt(data[7]);
-                boolean admittedBefore = Boolean.parseBoolean(data[8]);
-
-                patientTree.insert(
-                        new Patient(id, name, age, gender, illness, contact, vegetarian, visits, admittedBefore));
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading patients: " + e.getMessage());
-        }
+        patients.load();
     }
 
+    // Re-read the hot window from disk; older appointments live in the monthly archive
     public void loadAppointments() {
-        appointments.clear();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(APPOINTMENTS_CSV_FILE))) {
-            String line = reader.readLine(); // skip header
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length >= 6) {
-                    int appointmentId = Integer.parseInt(fields[0].trim());
-                    int patientId = Integer.parseInt(fields[1].trim());
-                    String patientName = fields[2].trim();
-                    String reason = fields[3].trim();
-                    LocalDateTime dateTime = LocalDateTime.parse(fields[4].trim(), formatter);
-                    int doctorId = Integer.parseInt(fields[5].trim());
-
-                    Appointment appointment = new Appointment(appointmentId, patientId, patientName, reason, dateTime,
-                            doctorId);
-                    appointments.enqueue(appointment);
-                }
-            }
-        } catch (IOException | NumberFormatException e) {
-            System.out.println("Error loading appointments: " + e.getMessage());
-        }
+        appointments.load();
     }
 
     public void managePatients() {
@@ -332,6 +60,7 @@ public class PatientService {
             System.out.println("4. Delete My Appointments");
             System.out.println("5. View Doctors List");
             System.out.println("6. Update Patient Information");
+            System.out.println("7. View My Past Appointments");
             System.out.println("0. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
@@ -357,6 +86,9 @@ public class PatientService {
                 case 6:
                     updatePatient();
                     break;
+                case 7:
+                    viewPastAppointments();
+                    break;
                 case 0:
                     System.out.println("Returning to main menu.");
                     break;
@@ -426,6 +158,18 @@ public class PatientService {
             return;
         }
 
+        // Check if the appointment time is available
+        if (!checkAvailability(dateTime, doctorId)) {
+            // Suggest next available slot or another doctor
+            System.out.println("Requested slot is not available.");
+            SlotSearch.Slot alternative = suggestAlternateSlotOrDoctor(dateTime, doctorId);
+            if (alternative == null) {
+                return;
+            }
+            dateTime = alternative.getStart();
+            doctorId = alternative.getDoctor().getId();
+        }
+
         // Generate appointmentId (can be incremental or randomized)
         int appointmentId = Appointment.getNextAppointmentId();
 
@@ -434,18 +178,39 @@ public class PatientService {
         // Create the Appointment object
         Appointment appointment = new Appointment(appointmentId, patientId, patientName, illness, dateTime, doctorId);
 
-        // Check if the appointment time is available
-        if (checkAvailability(dateTime, doctorId)) {
-            appointments.enqueue(appointment); // Add appointment to the list
-            System.out.println("Appointment booked successfully!");
-        } else {
-            // Suggest next available slot or another doctor
-            System.out.println("Requested slot is not available.");
-            // suggestAlternateSlotOrDoctor(dateTime, doctorId);
-        }
+        appointments.add(appointment); // Add appointment to the list
+        System.out.println("Appointment booked successfully!");
         saveAppointmentsToCSV();
     }
 
+    // Offer the earliest free slots (same doctor first, then same specialization); null if none taken
+    private SlotSearch.Slot suggestAlternateSlotOrDoctor(LocalDateTime requested, int doctorId) {
+        List<SlotSearch.Slot> options = new SlotSearch(appointments).earliestFree(doctorId, requested, SUGGESTED_SLOTS);
+        if (options.isEmpty()) {
+            System.out.println("No free slots in the next " + SlotSearch.BOOKING_WINDOW_DAYS
+                    + " days for this doctor or specialization.");
+            return null;
+        }
+
+        System.out.println("Earliest available slots:");
+        for (int i = 0; i < options.size(); i++) {
+            System.out.println((i + 1) + ". " + options.get(i));
+        }
+        System.out.print("Choose a slot (0 to cancel): ");
+
+        int pick;
+        try {
+            pick = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            pick = 0;
+        }
+        if (pick < 1 || pick > options.size()) {
+            System.out.println("Booking cancelled.");
+            return null;
+        }
+        return options.get(pick - 1);
+    }
+
     // View the medical history of the patient
     private boolean viewMyAppointments() {
         System.out.println("Enter Patient ID: ");
@@ -463,11 +228,9 @@ public class PatientService {
         System.out.println("        Your Appointments are:");
         System.out.println("------------------------------------------");
 
-        for (Appointment appointment : appointments) {
-            if (appointment.getPatientId() == patientId) {
-                System.out.println(appointment);
-                found = true;
-            }
+        for (Appointment appointment : appointments.findByPatient(patientId)) {
+            System.out.println(appointment);
+            found = true;
         }
 
         if (!found) {
@@ -477,6 +240,36 @@ public class PatientService {
         return found;
     }
 
+    // Appointment history: archived months are read from disk only when asked for
+    private void viewPastAppointments() {
+        System.out.println("Enter Patient ID: ");
+        int patientId;
+        try {
+            patientId = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Patient ID.");
+            return;
+        }
+
+        List<Appointment> past = archive.findByPatient(patientId);
+        LocalDateTime now = LocalDateTime.now();
+        for (Appointment appointment : appointments.findByPatient(patientId)) {
+            if (appointment.getDateTime().isBefore(now)) {
+                past.add(appointment); // earlier today, not archived yet
+            }
+        }
+
+        System.out.println("\n------------------------------------------");
+        System.out.println("        Your Past Appointments are:");
+        System.out.println("------------------------------------------");
+        if (past.isEmpty()) {
+            System.out.println("No past appointments found.");
+        }
+        for (Appointment appointment : past) {
+            System.out.println(appointment);
+        }
+    }
+
     // Update an appointment
     private void updateAppointments() {
         if (!viewMyAppointments()) {
@@ -495,61 +288,59 @@ public class PatientService {
 
         boolean found = false;
 
-        for (Appointment appointment : appointments) {
-            if (appointment.getAppointmentId() == targetId) {
-                System.out.println("Appointment found. Enter new details (press Enter to keep previous):");
-
-                int newDoctorId = appointment.getDoctorId(); // default
-                System.out.print("Enter new doctor ID [" + appointment.getDoctorId() + "]: ");
-                String doctorInput = scanner.nextLine().trim();
-                if (!doctorInput.isEmpty()) {
-                    try {
-                        newDoctorId = Integer.parseInt(doctorInput);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid doctor ID. Update aborted.");
-                        return;
-                    }
-                }
-
-                System.out.print("Enter new reason [" + appointment.getReason() + "]: ");
-                String reasonInput = scanner.nextLine().trim();
-                if (!reasonInput.isEmpty()) {
-                    appointment.setReason(reasonInput);
+        Appointment appointment = appointments.findById(targetId);
+        if (appointment != null) {
+            System.out.println("Appointment found. Enter new details (press Enter to keep previous):");
+
+            int newDoctorId = appointment.getDoctorId(); // default
+            System.out.print("Enter new doctor ID [" + appointment.getDoctorId() + "]: ");
+            String doctorInput = scanner.nextLine().trim();
+            if (!doctorInput.isEmpty()) {
+                try {
+                    newDoctorId = Integer.parseInt(doctorInput);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid doctor ID. Update aborted.");
+                    return;
                 }
+            }
 
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-                LocalDateTime newDateTime = appointment.getAppointmentDate(); // default
-                System.out.print(
-                        "Enter new date and time [" + appointment.getAppointmentDate().format(formatter) + "]: ");
-                String dateTimeStr = scanner.nextLine().trim();
-                if (!dateTimeStr.isEmpty()) {
-                    try {
-                        newDateTime = LocalDateTime.parse(dateTimeStr, formatter);
-                    } catch (DateTimeParseException e) {
-                        System.out.println("Invalid date and time format. Update aborted.");
-                        return;
-                    }
-                }
+            String newReason = appointment.getReason(); // default
+            System.out.print("Enter new reason [" + appointment.getReason() + "]: ");
+            String reasonInput = scanner.nextLine().trim();
+            if (!reasonInput.isEmpty()) {
+                newReason = reasonInput;
+            }
 
-                // Check doctor's day-wise availability
-                if (!checkAvailability(newDateTime, newDoctorId)) {
-                    System.out.println("Doctor is not available on the selected date. Update aborted.");
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            LocalDateTime newDateTime = appointment.getAppointmentDate(); // default
+            System.out.print(
+                    "Enter new date and time [" + appointment.getAppointmentDate().format(formatter) + "]: ");
+            String dateTimeStr = scanner.nextLine().trim();
+            if (!dateTimeStr.isEmpty()) {
+                try {
+                    newDateTime = LocalDateTime.parse(dateTimeStr, formatter);
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid date and time format. Update aborted.");
                     return;
                 }
+            }
 
-                // Apply updates
-                appointment.setDoctorId(newDoctorId);
-                appointment.setAppointmentDate(newDateTime);
-
-                found = true;
-                break;
+            // Check doctor's day-wise availability
+            if (!checkAvailability(newDateTime, newDoctorId, appointment.getAppointmentId())) {
+                System.out.println("Doctor is not available at the selected time. Update aborted.");
+                return;
             }
+
+            // Apply updates
+            appointments.update(appointment, newDoctorId, newDateTime, newReason);
+
+            found = true;
         }
 
         if (found) {
             saveAppointmentsToCSV();
             System.out.println("Appointment updated successfully.");
-        } else {
+        } else if (!reportArchived(targetId)) {
             System.out.println("Appointment ID not found.");
         }
     }
@@ -570,29 +361,28 @@ public class PatientService {
             return;
         }
 
-        boolean removed = false;
-        AppointmentLinkedList updatedAppointments = new AppointmentLinkedList();
-
-        while (!appointments.isEmpty()) {
-            Appointment appointment = appointments.dequeue(); // Assuming this is how you remove from
-                                                              // AppointmentLinkedList
-            if (appointment.getAppointmentId() == targetId) {
-                removed = true;
-                continue; // Do not add back the deleted appointment
-            }
-            updatedAppointments.enqueue(appointment); // Add back others
-        }
-
-        appointments = updatedAppointments; // Replace with updated list
+        boolean removed = appointments.remove(targetId) != null;
 
         if (removed) {
             saveAppointmentsToCSV();
             System.out.println("Appointment deleted successfully.");
+        } else if (archive.delete(targetId)) {
+            System.out.println("Past appointment deleted from the archive.");
         } else {
             System.out.println("Appointment ID not found.");
         }
     }
 
+    // Past appointments moved to the archive are history: they can be viewed and deleted, not edited
+    private boolean reportArchived(int appointmentId) {
+        if (archive.findById(appointmentId) == null) {
+            return false;
+        }
+        System.out.println("Appointment " + appointmentId
+                + " is in the past and has been archived; it can be viewed or deleted but not changed.");
+        return true;
+    }
+
     // View the list of doctors
     private void viewDoctors() {
         String filePath = "data/Doctors.csv"; // Ensure path is correct if in a different folder
@@ -628,7 +418,7 @@ public class PatientService {
         System.out.print("Enter Patient ID to update: ");
         int patientId = Integer.parseInt(scanner.nextLine().trim());
 
-        Patient targetPatient = patientTree.searchById(patientId);
+        Patient targetPatient = patients.findById(patientId);
 
         if (targetPatient == null) {
             System.out.println("Patient ID not found.");
@@ -689,40 +479,16 @@ public class PatientService {
         if (!admitted.isEmpty())
             targetPatient.setWasAdmittedBefore(Boolean.parseBoolean(admitted));
 
-        savePatientsToCSV();
+        patients.update(targetPatient); // re-files the name/identity indexes and logs the change
         System.out.println("Patient information updated.");
     }
 
     // Register a new patient if not found
     private int getOrRegisterPatientId(String patientName, String contactNo) {
-        String filePath = "data/Patients.csv";
-        int lastId = 0;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            // Skip header
-            reader.readLine();
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length < 6)
-                    continue;
-
-                int id = Integer.parseInt(fields[0].trim());
-                String name = fields[1].trim();
-                String contact = fields[5].trim();
-
-                // Check both name and contactNo
-                if (name.equalsIgnoreCase(patientName) && contact.equals(contactNo)) {
-                    return id;
-                }
-
-                if (id > lastId) {
-                    lastId = id;
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading Patients.csv: " + e.getMessage());
+        // In-memory (name, contact) lookup; the patient file is not read on this path
+        Patient existing = patients.findByIdentity(patientName, contactNo);
+        if (existing != null) {
+            return existing.getPatientId();
         }
 
         // Patient not found – register new
@@ -758,17 +524,14 @@ public class PatientService {
         System.out.print("Was the patient admitted before? (true/false): ");
         boolean wasAdmittedBefore = Boolean.parseBoolean(scanner.nextLine().trim());
 
-        int newId = lastId + 1;
+        int newId = Patient.getNextPatientId();
 
         // Create a Patient object
-        Patient newPatient = new Patient(newId, patientName, age, gender, contactNo, "", vegetarian, numberOfVisits,
-                wasAdmittedBefore);
-
-        // Insert into Binary Search Tree
-        patientTree.insert(newPatient);
+        Patient newPatient = new Patient(newId, patientName, age, gender, illness, contactNo, vegetarian,
+                numberOfVisits, wasAdmittedBefore);
 
-        // Write to CSV
-        writePatientToCSV(newPatient);
+        // Insert into the shared registry and append to CSV
+        patients.add(newPatient);
 
         return newId;
 
@@ -776,146 +539,53 @@ public class PatientService {
 
     // save changes to appointment
     private void saveAppointmentsToCSV() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(APPOINTMENTS_CSV_FILE))) {
-            // Write header
-            writer.write("AppointmentID,PatientID,PatientName,Reason,DateTime,DoctorID");
-            writer.newLine();
-
-            for (Appointment appointment : appointments) {
-                writer.write(appointment.getAppointmentId() + "," +
-                        appointment.getPatientId() + "," +
-                        appointment.getPatientName() + "," +
-                        appointment.getReason() + "," +
-                        appointment.getDateTime().format(formatter) + "," +
-                        appointment.getDoctorId());
-                writer.newLine();
-            }
-
-        } catch (IOException e) {
-            System.out.println("Error saving appointments: " + e.getMessage());
-        }
+        appointments.save(); // syncs the appointment log; Appointments.csv is rewritten only at checkpoints
     }
 
-    private void writePatientToCSV(Patient p) {
-        String filePath = "data/Patients.csv";
-        String newPatientData = String.format("%d,%s,%d,%s,%s,%s,%b,%d,%b",
-                p.getPatientId(),
-                p.getName(),
-                p.getAge(),
-                p.getGender(),
-                p.getIllness(),
-                p.getEmergencyContact(),
-                p.isVegetarian(),
-                p.getNumberOfVisits(),
-                p.WasAdmittedBefore());
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
-            writer.newLine();
-            writer.write(newPatientData);
-        } catch (IOException e) {
-            System.out.println("Error writing to Patients.csv: " + e.getMessage());
-        }
+    // Helper method to find doctor by ID (in-memory copy kept by DoctorService)
+    private Doctor findDoctorById(int doctorId) {
+        return DoctorService.getDoctor(doctorId);
     }
 
-    private void savePatientsToCSV() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("data/Patients.csv"))) {
-            writer.println(
-                    "PatientID,Name,Age,Gender,Illness,EmergencyContact,Vegetarian,NumberOfVisits,WasAdmittedBefore");
-
-            // Use the traverseInOrder method to loop through each patient in the tree
-            patientTree.traverseInOrder(patient -> {
-                writer.printf("%d,%s,%d,%s,%s,%s,%b,%d,%b\n",
-                        patient.getPatientId(),
-                        patient.getName(),
-                        patient.getAge(),
-                        patient.getGender(),
-                        patient.getIllness(),
-                        patient.getEmergencyContact(),
-                        patient.isVegetarian(),
-                        patient.getNumberOfVisits(),
-                        patient.WasAdmittedBefore());
-            });
-
-            System.out.println("Patients saved to CSV successfully.");
-        } catch (IOException e) {
-            System.out.println("Error saving to CSV: " + e.getMessage());
-        }
+    private boolean checkAvailability(LocalDateTime dateTime, int doctorId) {
+        return checkAvailability(dateTime, doctorId, -1);
     }
 
-    // Helper method to find doctor by ID
-    private Doctor findDoctorById(int doctorId) {
-        String filePath = "data/Doctors.csv";
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length < 7)
-                    continue;
-
-                int id = Integer.parseInt(fields[0].trim());
-                if (id == doctorId) {
-                    // Found the doctor, create and return the Doctor object
-                    String name = fields[1].trim();
-                    String qualification = fields[2].trim();
-                    String specialization = fields[3].trim();
-                    String contact = fields[4].trim();
-                    int experience = Integer.parseInt(fields[5].trim());
-                    String[] availability = fields[6].trim().split("-");
-                    return new Doctor(id, name, qualification, specialization, contact, experience, availability);
-                }
-            }
-        } catch (IOException | NumberFormatException e) {
-            System.out.println("Error reading from Doctors.csv: " + e.getMessage());
+    // Doctor works that weekday and has no overlapping booking; excludeAppointmentId is the appointment being moved
+    private boolean checkAvailability(LocalDateTime dateTime, int doctorId, int excludeAppointmentId) {
+        String problem = availabilityProblem(dateTime, doctorId, excludeAppointmentId);
+        if (problem != null) {
+            System.out.println(problem);
         }
-
-        return null; // Doctor not found
+        return problem == null;
     }
 
-    private boolean checkAvailability(LocalDateTime dateTime, int doctorId) {
-        String filePath = "data/Doctors.csv"; // File path for the doctor's CSV file
-        boolean isAvailable = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            // Skip the header
-            reader.readLine();
-
-            // Loop through the file and check the doctor's availability
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length < 7)
-                    continue; // Skip invalid lines
-
-                int doctorIdFromFile = Integer.parseInt(fields[0].trim()); // Assuming ID is the first column
-                String availability = fields[6].trim(); // Availability is the last column
-
-                // Check if the current doctor is the one we're looking for
-                if (doctorIdFromFile == doctorId) {
-                    // Split availability into individual days (Mon, Tue, etc.)
-                    String[] availableDays = availability.split("-");
+    // Why the doctor cannot take this slot, or null if it is bookable
+    private String availabilityProblem(LocalDateTime dateTime, int doctorId, int excludeAppointmentId) {
+        Doctor doctor = findDoctorById(doctorId);
+        if (doctor == null || doctor.getAvailability() == null) {
+            return "Doctor not found.";
+        }
 
-                    // Extract the day of the week from the appointment's date
-                    String dayOfWeek = dateTime.getDayOfWeek().toString().substring(0, 3); // "Mon", "Tue", etc.
+        // Extract the day of the week from the appointment's date
+        String dayOfWeek = dateTime.getDayOfWeek().toString().substring(0, 3); // "Mon", "Tue", etc.
 
-                    // Check if the doctor is available on that day
-                    for (String day : availableDays) {
-                        if (day.equalsIgnoreCase(dayOfWeek)) {
-                            isAvailable = true;
-                            break;
-                        }
-                    }
-                    break; // Once we find the doctor, we don't need to process the file further
-                }
+        boolean worksThatDay = false;
+        for (String day : doctor.getAvailability()) {
+            if (day.trim().equalsIgnoreCase(dayOfWeek)) {
+                worksThatDay = true;
+                break;
             }
-        } catch (IOException e) {
-            System.out.println("Error reading from Doctors.csv: " + e.getMessage());
+        }
+        if (!worksThatDay) {
+            return "Doctor is not available on " + dateTime.getDayOfWeek() + ".";
         }
 
-        return isAvailable; // If the doctor is available on the selected day
+        if (!appointments.isSlotFree(doctorId, dateTime, excludeAppointmentId)) {
+            return doctor.getName() + " already has an appointment in that "
+                    + SlotCalendar.SLOT_MINUTES + "-minute slot.";
+        }
+        return null;
     }
 
     // =========================== Administrator Functions
@@ -934,6 +604,7 @@ public class PatientService {
             System.out.println("3. Update Patients");
             System.out.println("4. View All Patients");
             System.out.println("5. Search Patients");
+            System.out.println("6. Patient Reports");
             System.out.println("0. Back");
             System.out.print("Enter your choice: ");
             choice = scanner.nextInt();
@@ -955,6 +626,9 @@ public class PatientService {
                 case 5:
                     searchPatient();
                     break;
+                case 6:
+                    viewPatientReports();
+                    break;
                 case 0:
                     System.out.println("Returning to previous menu...");
                     break;
@@ -1019,11 +693,8 @@ public class PatientService {
         Patient newPatient = new Patient(id, name, age, gender, illness, emergencyContact, vegetarian, numberOfVisits,
                 wasAdmittedBefore);
 
-        // Insert into Binary Search Tree
-        patientTree.insert(newPatient);
-
-        // Save to CSV
-        writePatientToCSV(newPatient);
+        // Insert into the shared registry and append to CSV
+        patients.add(newPatient);
 
         System.out.println("Patient added successfully and saved to records.");
     }
@@ -1033,51 +704,19 @@ public class PatientService {
         System.out.print("Enter Patient ID to delete: ");
         int idToDelete = Integer.parseInt(scanner.nextLine());
 
-        // First, try to find and delete from the BST
-        boolean deletedFromTree = patientTree.delete(idToDelete);
-        if (!deletedFromTree) {
+        // Remove from the shared registry; the repository logs a tombstone
+        if (!patients.delete(idToDelete)) {
             System.out.println("Patient ID not found in records.");
             return;
         }
 
-        // Now update the CSV file (rewrite without the deleted patient)
-        String filePath = "data/Patients.csv";
-        File inputFile = new File(filePath);
-        File tempFile = new File("data/Patients_temp.csv");
-
-        try (
-                BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-                BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty())
-                    continue;
-                String[] parts = line.split(",", -1);
-                if (parts[0].equals(String.valueOf(idToDelete))) {
-                    continue; // skip this line
-                }
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.out.println("Error updating patient file: " + e.getMessage());
-            return;
-        }
-
-        // Replace old file with updated file
-        if (inputFile.delete()) {
-            tempFile.renameTo(inputFile);
-        } else {
-            System.out.println("Failed to delete original patient file.");
-        }
-
         System.out.println("Patient deleted successfully.");
     }
 
     private void viewAllPatients() {
         System.out.println("\n==== All Patients ====");
 
-        List<Patient> allPatients = patientTree.getAllPatientsInOrder(); // Corrected
+        List<Patient> allPatients = patients.getAllInOrder();
 
         if (allPatients.isEmpty()) {
             System.out.println("No patients found in records.");
@@ -1094,6 +733,8 @@ public class PatientService {
         System.out.println("\n==== Search Patient ====");
         System.out.println("1. Search by Patient ID");
         System.out.println("2. Search by Patient Name");
+        System.out.println("3. Search by Patient ID Range");
+        System.out.println("4. Search by Age Range");
         System.out.print("Enter your choice: ");
         int choice = scanner.nextInt();
         scanner.nextLine(); // Consume newline
@@ -1105,13 +746,13 @@ public class PatientService {
                 System.out.print("Enter Patient ID: ");
                 int id = scanner.nextInt();
                 scanner.nextLine(); // Consume newline
-                found = patientTree.searchById(id);
+                found = patients.findById(id);
                 System.out.println(found);
                 break;
             case 2:
                 System.out.print("Enter Patient Name: ");
                 String name = scanner.nextLine().trim();
-                List<Patient> foundPatients = patientTree.searchAllByName(name);
+                List<Patient> foundPatients = patients.findByName(name);
                 if (foundPatients != null && !foundPatients.isEmpty()) {
                     System.out.println("\nPatients found:");
                     for (Patient p : foundPatients) {
@@ -1121,7 +762,71 @@ public class PatientService {
                     System.out.println("No patient found with the given details.");
                 }
                 break;
+            case 3:
+                System.out.print("Enter starting Patient ID: ");
+                int fromId = scanner.nextInt();
+                System.out.print("Enter ending Patient ID: ");
+                int toId = scanner.nextInt();
+                scanner.nextLine(); // Consume newline
+                List<Patient> inIdRange = patients.rangeById(fromId, toId).collect(Collectors.toList());
+                printRangeResult(inIdRange);
+                break;
+            case 4:
+                System.out.print("Enter minimum age: ");
+                int minAge = scanner.nextInt();
+                System.out.print("Enter maximum age: ");
+                int maxAge = scanner.nextInt();
+                scanner.nextLine(); // Consume newline
+                printRangeResult(patients.rangeByAge(minAge, maxAge));
+                break;
+            default:
+                System.out.println("Invalid choice.");
+        }
+    }
+
+    private void printRangeResult(List<Patient> matches) {
+        if (matches.isEmpty()) {
+            System.out.println("No patients found in the given range.");
+            return;
+        }
+        System.out.println("\n" + matches.size() + " patient(s) found:");
+        for (Patient p : matches) {
+            System.out.println(p);
+        }
+    }
+
+    // Summary figures for ward planning, computed over the columnar copy of the registry
+    private void viewPatientReports() {
+        PatientColumnStore columns = patients.columns();
+        if (columns.size() == 0) {
+            System.out.println("No patients found in records.");
+            return;
         }
+
+        long[] all = columns.all();
+        long[] vegetarian = columns.vegetarian();
+        long[] admitted = columns.admittedBefore();
+        long[] seniors = columns.ageBetween(60, Integer.MAX_VALUE);
+
+        System.out.println("\n==== Patient Reports ====");
+        System.out.println("Total patients: " + columns.size());
+        System.out.printf("Average age: %.1f, average visits: %.1f%n",
+                columns.averageAge(all), columns.averageVisits(all));
+        System.out.println("Vegetarian: " + PatientColumnStore.count(vegetarian));
+        System.out.println("Admitted before: " + PatientColumnStore.count(admitted));
+
+        System.out.println("\nAge groups:");
+        System.out.println("  0-5   : " + PatientColumnStore.count(columns.ageBetween(0, 5)));
+        System.out.println("  6-17  : " + PatientColumnStore.count(columns.ageBetween(6, 17)));
+        System.out.println("  18-59 : " + PatientColumnStore.count(columns.ageBetween(18, 59)));
+        System.out.println("  60+   : " + PatientColumnStore.count(seniors));
+
+        long[] vegSeniorsAdmitted = PatientColumnStore.and(PatientColumnStore.and(seniors, vegetarian), admitted);
+        System.out.println("\nVegetarian patients aged 60+ admitted before: "
+                + PatientColumnStore.count(vegSeniorsAdmitted));
+
+        System.out.println("\nPatients by illness:");
+        columns.countByIllness(all).forEach((illness, count) -> System.out.println("  " + illness + ": " + count));
     }
 
     // --------- Appointments Functions ---------- //
@@ -1137,6 +842,11 @@ public class PatientService {
             System.out.println("3. Update Appointment");
             System.out.println("4. View All Appointment");
             System.out.println("5. Search Appointment");
+            System.out.println("6. Register Walk-in Patient");
+            System.out.println("7. Call Next Walk-in Patient");
+            System.out.println("8. View Walk-in Queue");
+            System.out.println("9. Find Free Doctors");
+            System.out.println("10. Bulk Book Appointments");
             System.out.println("0. Back");
             System.out.print("Enter your choice: ");
             choice = scanner.nextInt();
@@ -1158,6 +868,21 @@ public class PatientService {
                 case 5:
                     searchAppointment();
                     break;
+                case 6:
+                    registerWalkIn();
+                    break;
+                case 7:
+                    callNextWalkIn();
+                    break;
+                case 8:
+                    viewWalkInQueue();
+                    break;
+                case 9:
+                    findFreeDoctors();
+                    break;
+                case 10:
+                    bulkBookAppointments();
+                    break;
                 case 0:
                     System.out.println("Returning to previous menu...");
                     break;
@@ -1208,17 +933,26 @@ public class PatientService {
         System.out.print("Enter Doctor ID: ");
         int doctorId = Integer.parseInt(scanner.nextLine());
 
+        if (findDoctorById(doctorId) == null) {
+            System.out.println("Doctor not found.");
+            return;
+        }
+        if (!checkAvailability(dateTime, doctorId)) {
+            System.out.println("Doctor is not available at the selected time. Appointment not added.");
+            return;
+        }
+
         // Create new Appointment object with the input data
         Appointment newAppointment = new Appointment(id, patientId, patientName, reason, dateTime, doctorId);
 
         // Add appointment to the queue (using enqueue)
-        appointments.enqueue(newAppointment);
+        appointments.add(newAppointment);
         saveAppointmentsToCSV();
         System.out.println("Appointment added successfully.");
     }
 
     public void deleteAppointment() {
-        if (appointments.isEmpty()) {
+        if (appointments.isEmpty() && archive.months().isEmpty()) {
             System.out.println("No appointments to delete.");
             return;
         }
@@ -1226,91 +960,276 @@ public class PatientService {
         System.out.print("Enter Appointment ID to delete: ");
         int idToDelete = Integer.parseInt(scanner.nextLine());
 
-        AppointmentLinkedList tempQueue = new AppointmentLinkedList();
-        boolean found = false;
-
-        while (!appointments.isEmpty()) {
-            Appointment current = appointments.dequeue();
-            if (current.getAppointmentId() == idToDelete) {
-                found = true;
-                System.out.println("Appointment with ID " + idToDelete + " has been deleted.");
-                continue; // Don't re-add this appointment
-            }
-            tempQueue.enqueue(current); // Re-add other appointments
-        }
-
-        // Restore the remaining appointments back to the main queue
-        appointments = tempQueue;
-
-        if (!found) {
+        if (appointments.remove(idToDelete) != null) {
+            System.out.println("Appointment with ID " + idToDelete + " has been deleted.");
+            saveAppointmentsToCSV();
+        } else if (archive.delete(idToDelete)) {
+            System.out.println("Past appointment with ID " + idToDelete + " has been deleted from the archive.");
+        } else {
             System.out.println("No appointment found with ID " + idToDelete);
         }
-
-        saveAppointmentsToCSV();
     }
 
     public void updateAppointment() {
         System.out.print("Enter Appointment ID to update: ");
         int id = Integer.parseInt(scanner.nextLine());
 
-        boolean found = false;
-        for (Appointment appointment : appointments) {
-            if (appointment.getAppointmentId() == id) {
-                found = true;
-                System.out.println("Appointment found. Press Enter to keep existing details.");
-
-                // Doctor ID
-                System.out.print("Enter new Doctor ID [" + appointment.getDoctorId() + "]: ");
-                String doctorInput = scanner.nextLine().trim();
-                if (!doctorInput.isEmpty()) {
-                    appointment.setDoctorId(Integer.parseInt(doctorInput));
-                }
+        Appointment appointment = appointments.findById(id);
+        boolean found = appointment != null;
+        if (found) {
+            System.out.println("Appointment found. Press Enter to keep existing details.");
+
+            // Doctor ID
+            int newDoctorId = appointment.getDoctorId();
+            System.out.print("Enter new Doctor ID [" + appointment.getDoctorId() + "]: ");
+            String doctorInput = scanner.nextLine().trim();
+            if (!doctorInput.isEmpty()) {
+                newDoctorId = Integer.parseInt(doctorInput);
+            }
 
-                // Date & Time
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-                String oldDate = appointment.getDateTime().format(formatter);
-                System.out.print("Enter new Appointment Date & Time (YYYY-MM-DD HH:MM) [" + oldDate + "]: ");
-                String dateTimeInput = scanner.nextLine().trim();
-
-                if (!dateTimeInput.isEmpty()) {
-                    try {
-                        LocalDateTime newDateTime = LocalDateTime.parse(dateTimeInput, formatter);
-                        LocalDateTime now = LocalDateTime.now();
-                        LocalDateTime maxDate = now.plusDays(7);
-
-                        if (newDateTime.isBefore(now)) {
-                            System.out.println("Appointment cannot be in the past.");
-                            return;
-                        } else if (newDateTime.isAfter(maxDate)) {
-                            System.out.println("Appointment must be within 7 days from today.");
-                            return;
-                        }
-
-                        appointment.setAppointmentDate(newDateTime);
-                    } catch (DateTimeParseException e) {
-                        System.out.println("Invalid date format. Please use YYYY-MM-DD HH:MM.");
+            // Date & Time
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            String oldDate = appointment.getDateTime().format(formatter);
+            LocalDateTime newDateTime = appointment.getDateTime();
+            System.out.print("Enter new Appointment Date & Time (YYYY-MM-DD HH:MM) [" + oldDate + "]: ");
+            String dateTimeInput = scanner.nextLine().trim();
+
+            if (!dateTimeInput.isEmpty()) {
+                try {
+                    newDateTime = LocalDateTime.parse(dateTimeInput, formatter);
+                    LocalDateTime now = LocalDateTime.now();
+                    LocalDateTime maxDate = now.plusDays(7);
+
+                    if (newDateTime.isBefore(now)) {
+                        System.out.println("Appointment cannot be in the past.");
+                        return;
+                    } else if (newDateTime.isAfter(maxDate)) {
+                        System.out.println("Appointment must be within 7 days from today.");
                         return;
                     }
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid date format. Please use YYYY-MM-DD HH:MM.");
+                    return;
                 }
+            }
 
-                // Reason
-                System.out.print("Enter new Reason [" + appointment.getReason() + "]: ");
-                String newReason = scanner.nextLine().trim();
-                if (!newReason.isEmpty()) {
-                    appointment.setReason(newReason);
-                }
+            // Reason
+            String newReason = appointment.getReason();
+            System.out.print("Enter new Reason [" + appointment.getReason() + "]: ");
+            String reasonInput = scanner.nextLine().trim();
+            if (!reasonInput.isEmpty()) {
+                newReason = reasonInput;
+            }
 
-                saveAppointmentsToCSV();
-                System.out.println("Appointment updated successfully.");
-                break;
+            boolean moved = newDoctorId != appointment.getDoctorId()
+                    || !newDateTime.equals(appointment.getDateTime());
+            if (moved && !checkAvailability(newDateTime, newDoctorId, appointment.getAppointmentId())) {
+                System.out.println("Doctor is not available at the selected time. Update aborted.");
+                return;
             }
+
+            appointments.update(appointment, newDoctorId, newDateTime, newReason);
+            saveAppointmentsToCSV();
+            System.out.println("Appointment updated successfully.");
         }
 
-        if (!found) {
+        if (!found && !reportArchived(id)) {
             System.out.println("No appointment found with the given ID.");
         }
     }
 
+    // Walk-ins get a token stamped with the arrival time and wait in FIFO order. Tokens are never saved,
+    // so they are numbered separately and do not use up appointment IDs.
+    public void registerWalkIn() {
+        System.out.print("Enter Patient ID: ");
+        int patientId;
+        int doctorId;
+        try {
+            patientId = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Enter Doctor ID: ");
+            doctorId = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid ID. Please enter a number.");
+            return;
+        }
+
+        Patient patient = patients.findById(patientId);
+        if (patient == null) {
+            System.out.println("Patient ID not found.");
+            return;
+        }
+        if (findDoctorById(doctorId) == null) {
+            System.out.println("Doctor not found.");
+            return;
+        }
+
+        System.out.print("Enter Reason for Visit: ");
+        String reason = scanner.nextLine().trim();
+
+        WalkInToken token = new WalkInToken(nextWalkInToken.getAndIncrement(), patientId, patient.getName(), reason,
+                LocalDateTime.now(), doctorId);
+        walkIns.enqueue(token);
+        System.out.println("Walk-in registered. Token number: " + token.getNumber());
+    }
+
+    public void callNextWalkIn() {
+        WalkInToken next = walkIns.dequeue();
+        if (next == null) {
+            System.out.println("No walk-in patients waiting.");
+            return;
+        }
+        System.out.println("Now calling token " + next.getNumber() + ": " + next);
+    }
+
+    public void viewWalkInQueue() {
+        if (walkIns.isEmpty()) {
+            System.out.println("No walk-in patients waiting.");
+            return;
+        }
+        System.out.println("==== Walk-in Queue ====");
+        int position = 1;
+        for (WalkInToken token : walkIns) {
+            System.out.println(position++ + ". " + token);
+        }
+    }
+
+    // e.g. "which cardiologists are free Tuesday 10:00-12:00", answered from the slot calendar bitmaps
+    public void findFreeDoctors() {
+        System.out.print("Enter Specialization: ");
+        String specialization = scanner.nextLine().trim();
+
+        LocalDate day;
+        LocalTime from;
+        LocalTime to;
+        try {
+            System.out.print("Enter Date (YYYY-MM-DD): ");
+            day = LocalDate.parse(scanner.nextLine().trim());
+            System.out.print("Enter From Time (HH:MM): ");
+            from = LocalTime.parse(scanner.nextLine().trim());
+            System.out.print("Enter To Time (HH:MM): ");
+            to = LocalTime.parse(scanner.nextLine().trim());
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date or time format.");
+            return;
+        }
+        if (!to.isAfter(from)) {
+            System.out.println("The end time must be after the start time.");
+            return;
+        }
+
+        List<Doctor> candidates = DoctorService.getDoctorsBySpecialization(specialization);
+        if (candidates.isEmpty()) {
+            System.out.println("No doctors found with specialization " + specialization + ".");
+            return;
+        }
+
+        SlotCalendar calendar = appointments.calendar();
+        List<Doctor> free = calendar.freeDoctors(candidates, day, from, to);
+        if (free.isEmpty()) {
+            System.out.println("No " + specialization + " is free for the whole of " + from + "-" + to + ".");
+            List<LocalTime> anyone = SlotCalendar.times(calendar.anyFree(candidates, day, from, to));
+            if (!anyone.isEmpty()) {
+                System.out.println("Times within that window when at least one is free: " + anyone);
+            }
+            return;
+        }
+        System.out.println("Free " + from + "-" + to + " on " + day + ":");
+        for (Doctor doctor : free) {
+            System.out.println(doctor);
+        }
+    }
+
+    /**
+     * Book many appointments at once. Each request is validated in order
+     * against the booking window, the doctor's days and everything booked so
+     * far, including earlier requests in the same batch. Accepted ones go
+     * straight into the in-memory indexes, and Appointments.csv is written
+     * once at the end rather than once per booking.
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests) {
+        List<BookingResult> results = new ArrayList<>(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime maxDate = now.plusDays(7);
+        int booked = 0;
+
+        for (BookingRequest request : requests) {
+            LocalDateTime dateTime = request.getDateTime();
+            Patient patient = patients.findById(request.getPatientId());
+            String problem;
+            if (patient == null) {
+                problem = "Patient ID not found.";
+            } else if (dateTime == null || dateTime.isBefore(now)) {
+                problem = "Appointment cannot be booked in the past.";
+            } else if (dateTime.isAfter(maxDate)) {
+                problem = "Appointment must be within 7 days from today.";
+            } else {
+                problem = availabilityProblem(dateTime, request.getDoctorId(), -1);
+            }
+
+            if (problem != null) {
+                results.add(BookingResult.rejected(request, problem));
+                continue;
+            }
+
+            Appointment appointment = new Appointment(Appointment.getNextAppointmentId(), patient.getPatientId(),
+                    patient.getName(), request.getReason(), dateTime, request.getDoctorId());
+            appointments.add(appointment);
+            results.add(BookingResult.booked(request, appointment));
+            booked++;
+        }
+
+        if (booked > 0) {
+            saveAppointmentsToCSV(); // one write for the whole batch
+        }
+        return results;
+    }
+
+    // Bulk booking from a CSV file of PatientID,DoctorID,DateTime(yyyy-MM-dd HH:mm),Reason rows
+    public void bulkBookAppointments() {
+        System.out.print("Enter path of the CSV file to import: ");
+        String path = scanner.nextLine().trim();
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        List<BookingRequest> requests = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Skip header or empty lines
+                if (line.trim().isEmpty() || line.toLowerCase().startsWith("patientid")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                try {
+                    if (fields.length < 4) {
+                        throw new IllegalArgumentException("expected 4 columns");
+                    }
+                    requests.add(new BookingRequest(Integer.parseInt(fields[0].trim()),
+                            Integer.parseInt(fields[1].trim()),
+                            LocalDateTime.parse(fields[2].trim(), formatter),
+                            fields[3].trim()));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    skipped.add(line);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading " + path + ": " + e.getMessage());
+            return;
+        }
+
+        List<BookingResult> results = bookBatch(requests);
+        int booked = 0;
+        for (BookingResult result : results) {
+            System.out.println(result);
+            if (result.isBooked())
+                booked++;
+        }
+        for (String line : skipped) {
+            System.out.println("SKIPPED  malformed row: " + line);
+        }
+        System.out.println(booked + " of " + (requests.size() + skipped.size()) + " appointments booked.");
+    }
+
     public void viewAllAppointment() {
         if (appointments.isEmpty()) {
             System.out.println("No appointments to display.");
@@ -1334,23 +1253,22 @@ public class PatientService {
             case 1:
                 System.out.print("Enter Appointment ID: ");
                 int id = Integer.parseInt(scanner.nextLine());
-                for (Appointment appointment : appointments) {
-                    if (appointment.getAppointmentId() == id) {
-                        System.out.println("Appointment found: " + appointment);
-                        found = true;
-                        break;
-                    }
+                Appointment match = appointments.findById(id);
+                if (match == null) {
+                    match = archive.findById(id); // past appointment
+                }
+                if (match != null) {
+                    System.out.println("Appointment found: " + match);
+                    found = true;
                 }
                 break;
 
             case 2:
                 System.out.print("Enter Patient ID: ");
                 int patientId = Integer.parseInt(scanner.nextLine());
-                for (Appointment appointment : appointments) {
-                    if (appointment.getPatientId() == patientId) {
-                        System.out.println("Appointment found: " + appointment);
-                        found = true;
-                    }
+                for (Appointment appointment : appointments.findByPatient(patientId)) {
+                    System.out.println("Appointment found: " + appointment);
+                    found = true;
                 }
                 break;
 
@@ -0,0 +1,55 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * PatientStore.java
+ *
+ * Storage behind PatientRepository. PatientBinaryST keeps Patient objects on the
+ * heap in an indexed red-black tree; OffHeapPatientStore keeps fixed-layout
+ * records in direct memory and builds Patient objects only when they are read.
+ * Anything returned by a store may be a copy, so callers must hand edited
+ * patients back through update() for the change to stick.
+ */
+interface PatientStore {
+
+    /** Add a patient, replacing any stored record with the same ID */
+    void insert(Patient patient);
+
+    /** Store the edited patient over the record with the same ID; false if absent */
+    boolean update(Patient patient);
+
+    boolean delete(int id);
+
+    Patient searchById(int id);
+
+    List<Patient> searchAllByName(String name);
+
+    Patient findByIdentity(String name, String contact);
+
+    /** Highest ID ever inserted; not lowered by delete */
+    int getMaxId();
+
+    int size();
+
+    void clear();
+
+    /** Visit every patient in ascending ID order */
+    void traverseInOrder(Consumer<Patient> action);
+
+    List<Patient> getAllPatientsInOrder();
+
+    /** Patients with fromId <= ID <= toId, in ascending ID order */
+    Stream<Patient> rangeById(int fromId, int toId);
+
+    /** Patients with minAge <= age <= maxAge, ordered by age and then ID */
+    List<Patient> rangeByAge(int minAge, int maxAge);
+
+    Stream<Patient> stream();
+
+    Stream<Patient> parallelStream();
+}
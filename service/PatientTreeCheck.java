@@ -0,0 +1,108 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Patient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * PatientTreeCheck.java
+ *
+ * Randomised check of the red-black tree in PatientBinaryST against a
+ * java.util.TreeMap holding the same patients. It inserts in ascending ID
+ * order (how Patients.csv arrives), then churns random inserts, replacements
+ * and deletes, and after every step has the tree verify its own invariants
+ * (BST order, parent links, red rule, black height, size). At intervals the
+ * full in-order contents, range cursor and max ID are compared with the map.
+ * Throws at the first difference, so a clean run ends with "OK".
+ *
+ * Run from the project root after compiling:
+ * java -cp out HospitalManagement.service.PatientTreeCheck [operations] [seed]
+ */
+public final class PatientTreeCheck {
+
+    private PatientTreeCheck() {
+    }
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Random random = new Random(seed);
+
+        PatientBinaryST tree = new PatientBinaryST();
+        TreeMap<Integer, Patient> expected = new TreeMap<>();
+        int maxId = 0;
+
+        // Ascending IDs, the case a plain BST degrades on
+        for (int id = 1; id <= 5_000; id++) {
+            Patient patient = patient(id, random);
+            tree.insert(patient);
+            expected.put(id, patient);
+            maxId = id;
+            tree.checkInvariants();
+        }
+        compare(tree, expected, maxId, random);
+
+        int range = 4_096; // small, so most inserts and deletes hit occupied IDs and rebalance
+        for (int i = 1; i <= operations; i++) {
+            int id = 1 + random.nextInt(range);
+            if (random.nextInt(3) == 0) {
+                boolean deleted = tree.delete(id);
+                expect(deleted == (expected.remove(id) != null), "delete(" + id + ") returned " + deleted);
+            } else {
+                Patient patient = patient(id, random);
+                tree.insert(patient); // an existing ID is replaced in place
+                expected.put(id, patient);
+                maxId = Math.max(maxId, id);
+            }
+            tree.checkInvariants();
+            if (i % 10_000 == 0)
+                compare(tree, expected, maxId, random);
+        }
+
+        // Drain to empty, which exercises every delete fix-up case down to the root
+        List<Integer> ids = new ArrayList<>(expected.keySet());
+        Collections.shuffle(ids, random);
+        for (int id : ids) {
+            expect(tree.delete(id), "delete(" + id + ") of a stored ID returned false");
+            expected.remove(id);
+            tree.checkInvariants();
+        }
+        compare(tree, expected, maxId, random);
+
+        System.out.printf("OK: %d operations, seed %d%n", operations, seed);
+    }
+
+    private static void compare(PatientBinaryST tree, TreeMap<Integer, Patient> expected, int maxId, Random random) {
+        expect(tree.size() == expected.size(), "size " + tree.size() + ", expected " + expected.size());
+        expect(tree.getMaxId() == maxId, "max ID " + tree.getMaxId() + ", expected " + maxId);
+        expect(tree.getAllPatientsInOrder().equals(new ArrayList<>(expected.values())),
+                "in-order traversal differs from the map");
+        expect(tree.stream().count() == expected.size(), "stream saw a different number of patients");
+
+        for (int i = 0; i < 100; i++) {
+            int id = 1 + random.nextInt(maxId + 1);
+            expect(tree.searchById(id) == expected.get(id), "searchById(" + id + ") differs");
+        }
+
+        int from = random.nextInt(maxId + 1);
+        int to = from + random.nextInt(1_000);
+        List<Patient> cursor = tree.rangeById(from, to).collect(Collectors.toList());
+        expect(cursor.equals(new ArrayList<>(expected.subMap(from, true, to, true).values())),
+                "rangeById(" + from + ", " + to + ") differs");
+    }
+
+    private static Patient patient(int id, Random random) {
+        return new Patient(id, "Patient " + random.nextInt(1_000), 1 + random.nextInt(90), "M", "Flu",
+                "0300" + random.nextInt(10_000_000), false, 0, false);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition)
+            throw new IllegalStateException(message);
+    }
+}
@@ -2,11 +2,11 @@ package HospitalManagement.service;
 
 import HospitalManagement.model.Pharmacy;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.function.Predicate;
 
@@ -87,6 +87,7 @@ class PharmacyLinkedList<T> {
 public class PharmacyServices {
     private PharmacyLinkedList<Pharmacy> itemList = new PharmacyLinkedList<>();
     private final String FILE_PATH = "data/Pharmacy.csv";
+    private static final String SNAPSHOT = "pharmacy";
 
     public PharmacyServices() {
         loadItemsFromCSV();
@@ -96,31 +97,59 @@ public class PharmacyServices {
 
     private void loadItemsFromCSV() {
         itemList.clear();
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
+        List<Pharmacy> items = BinarySnapshot.read(SNAPSHOT, FILE_PATH, this::readSnapshotRow);
+        if (items == null) {
+            items = new ArrayList<>();
+            if (readItemsCsv(items)) {
+                BinarySnapshot.write(SNAPSHOT, FILE_PATH, items, PharmacyServices::writeSnapshotRow);
+            }
+        }
+        for (Pharmacy item : items) {
+            itemList.add(item);
+        }
+    }
+
+    // Parse Pharmacy.csv into items; false unless the whole file was read
+    private boolean readItemsCsv(List<Pharmacy> items) {
+        try (CsvReader row = new CsvReader(FILE_PATH)) {
             boolean isFirstLine = true;
-            while ((line = br.readLine()) != null) {
+            while (row.nextRow()) {
                 if (isFirstLine) {
                     isFirstLine = false; // Skip the header
                     continue;
                 }
-                String[] data = line.split(",");
-                if (data.length == 6) {
+                if (row.fieldCount() == 6) {
                     Pharmacy p = new Pharmacy(
-                            data[0].trim(),
-                            data[1].trim(),
-                            data[2].trim(),
-                            data[3].trim(),
-                            Integer.parseInt(data[4].trim()),
-                            Double.parseDouble(data[5].trim()));
-                    itemList.add(p);
+                            row.nextString(),
+                            row.nextString(),
+                            row.nextString(),
+                            row.nextString(),
+                            row.nextInt(),
+                            row.nextDouble());
+                    items.add(p);
                 }
             }
+            return true;
         } catch (IOException e) {
             System.out.println("Error loading pharmacy data: " + e.getMessage());
+            return false;
         }
     }
 
+    private static void writeSnapshotRow(BinarySnapshot.Output out, Pharmacy p) throws IOException {
+        out.writeString(p.getItemId());
+        out.writeString(p.getName());
+        out.writeString(p.getCategory());
+        out.writeString(p.getManufacturer());
+        out.writeInt(p.getQuantity());
+        out.writeDouble(p.getPrice());
+    }
+
+    private Pharmacy readSnapshotRow(BinarySnapshot.Input in) {
+        return new Pharmacy(in.readString(), in.readString(), in.readString(), in.readString(), in.readInt(),
+                in.readDouble());
+    }
+
     private void saveItemsToCSV() {
         try (PrintWriter writer = new PrintWriter(new FileWriter(FILE_PATH))) {
             PharmacyLinkedList<Pharmacy>.Node current = itemList.getHead();
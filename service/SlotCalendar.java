@@ -0,0 +1,242 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Doctor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SlotCalendar.java
+ *
+ * Compact booking calendar: for every doctor and day, one bitmap with a bit
+ * per 15-minute cell (96 cells, two longs). A booking sets the cells it
+ * covers, a cancellation clears them, and "is this slot free" is a mask test.
+ * Questions over many doctors are answered a 64-bit word at a time, e.g. the
+ * cardiologists free on Tuesday 10:00-12:00 are those whose free cells AND
+ * the 10:00-12:00 mask equal that mask, and OR-ing free cells across doctors
+ * gives the times at which anybody is available.
+ *
+ * Days without bookings take no space. The calendar is kept in step by
+ * AppointmentLinkedList, so it is rebuilt from Appointments.csv whenever the
+ * appointments are loaded. Bookings that do not start on a cell boundary mark
+ * every cell they touch, so the calendar errs on the side of "busy". Legacy
+ * rows that overlap each other share cells; a day in which that happens also
+ * counts the extra holders per cell, so a cell is only cleared when the last
+ * booking covering it is released.
+ *
+ * This is the only record of which slots are taken: booking checks, slot
+ * suggestions and free-doctor queries all read it. Every appointment lasts
+ * one slot, whose length comes from -Dhospital.slotMinutes (default 30).
+ */
+class SlotCalendar {
+    /** Length of one appointment slot in minutes */
+    static final int SLOT_MINUTES = Math.max(1, Integer.getInteger("hospital.slotMinutes", 30));
+    static final int CELL_MINUTES = 15;
+    static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+    private static final int WORDS = (CELLS_PER_DAY + 63) >>> 6;
+
+    private final IntHashMap<IntHashMap<Day>> booked = new IntHashMap<>(); // doctor ID -> epoch day -> cells
+
+    // One doctor's day: the occupancy bitmap, plus per-cell counts only once bookings overlap
+    private static final class Day {
+        final long[] cells = new long[WORDS];
+        int[] extra; // holders beyond the first, per cell; null while no cell is shared
+    }
+
+    // ****************** BOOKING ******************
+
+    public void book(int doctorId, LocalDateTime start, int minutes) {
+        if (start == null)
+            return;
+        Day day = day(doctorId, start.toLocalDate(), true);
+        int from = firstCell(start), to = endCell(start, minutes);
+        for (int cell = from; cell < to; cell++) {
+            if (isSet(day.cells, cell)) {
+                if (day.extra == null)
+                    day.extra = new int[CELLS_PER_DAY];
+                day.extra[cell]++;
+            }
+        }
+        setRange(day.cells, from, to);
+    }
+
+    public void release(int doctorId, LocalDateTime start, int minutes) {
+        if (start == null)
+            return;
+        Day day = day(doctorId, start.toLocalDate(), false);
+        if (day == null)
+            return;
+        long[] mask = new long[WORDS];
+        setRange(mask, firstCell(start), endCell(start, minutes));
+        if (day.extra != null) {
+            for (int cell = firstCell(start); cell < endCell(start, minutes); cell++) {
+                if (day.extra[cell] > 0) {
+                    day.extra[cell]--; // another booking still covers this cell
+                    mask[cell >>> 6] &= ~(1L << cell);
+                }
+            }
+        }
+        long[] cells = day.cells;
+        boolean empty = true;
+        for (int w = 0; w < WORDS; w++) {
+            cells[w] &= ~mask[w];
+            empty &= cells[w] == 0;
+        }
+        if (empty) {
+            IntHashMap<Day> days = booked.get(doctorId);
+            days.remove((int) start.toLocalDate().toEpochDay());
+            if (days.isEmpty())
+                booked.remove(doctorId);
+        }
+    }
+
+    public void clear() {
+        booked.clear();
+    }
+
+    // ****************** QUERIES ******************
+
+    /** True if none of the cells covered by [start, start + minutes) is booked */
+    public boolean isFree(int doctorId, LocalDateTime start, int minutes) {
+        return isFree(doctorId, start, minutes, null);
+    }
+
+    /**
+     * As isFree, but ignoring one booking of the same length that starts at
+     * except (the appointment being moved); null ignores nothing
+     */
+    public boolean isFree(int doctorId, LocalDateTime start, int minutes, LocalDateTime except) {
+        Day day = day(doctorId, start.toLocalDate(), false);
+        if (day == null)
+            return true;
+        long[] cells = day.cells;
+        long[] mask = new long[WORDS];
+        setRange(mask, firstCell(start), endCell(start, minutes));
+        if (except != null && except.toLocalDate().equals(start.toLocalDate())) {
+            for (int cell = firstCell(except); cell < endCell(except, minutes); cell++) {
+                if (day.extra == null || day.extra[cell] == 0)
+                    mask[cell >>> 6] &= ~(1L << cell); // held by the ignored booking alone
+            }
+        }
+        for (int w = 0; w < WORDS; w++) {
+            if ((cells[w] & mask[w]) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /** Cells the doctor can take patients in on that day: working day, within hours, not booked */
+    public long[] freeCells(Doctor doctor, LocalDate day, LocalTime open, LocalTime close) {
+        long[] free = new long[WORDS];
+        String dayOfWeek = day.getDayOfWeek().toString().substring(0, 3); // "MON" -> matches "Mon"
+        if (!doctor.isAvailableOn(dayOfWeek))
+            return free;
+        setRange(free, cellOf(open), endCellOf(close));
+        Day taken = day(doctor.getId(), day, false);
+        if (taken != null) {
+            for (int w = 0; w < WORDS; w++)
+                free[w] &= ~taken.cells[w];
+        }
+        return free;
+    }
+
+    /** The candidates who are free for the whole of [from, to) on that day */
+    public List<Doctor> freeDoctors(List<Doctor> candidates, LocalDate day, LocalTime from, LocalTime to) {
+        long[] wanted = new long[WORDS];
+        setRange(wanted, cellOf(from), endCellOf(to));
+        List<Doctor> free = new ArrayList<>();
+        for (Doctor doctor : candidates) {
+            long[] cells = freeCells(doctor, day, LocalTime.MIN, LocalTime.MAX);
+            boolean covers = true;
+            for (int w = 0; w < WORDS && covers; w++)
+                covers = (cells[w] & wanted[w]) == wanted[w];
+            if (covers)
+                free.add(doctor);
+        }
+        return free;
+    }
+
+    /** Cells in which at least one of the candidates is free during clinic hours */
+    public long[] anyFree(List<Doctor> candidates, LocalDate day, LocalTime open, LocalTime close) {
+        long[] any = new long[WORDS];
+        for (Doctor doctor : candidates) {
+            long[] cells = freeCells(doctor, day, open, close);
+            for (int w = 0; w < WORDS; w++)
+                any[w] |= cells[w];
+        }
+        return any;
+    }
+
+    /** Start times of the set cells, in order */
+    public static List<LocalTime> times(long[] cells) {
+        List<LocalTime> times = new ArrayList<>();
+        for (int w = 0; w < cells.length; w++) {
+            long word = cells[w];
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                times.add(LocalTime.MIN.plusMinutes((long) cell * CELL_MINUTES));
+                word &= word - 1; // drop the lowest set bit
+            }
+        }
+        return times;
+    }
+
+    // ****************** HELPERS ******************
+
+    private Day day(int doctorId, LocalDate date, boolean create) {
+        IntHashMap<Day> days = booked.get(doctorId);
+        if (days == null) {
+            if (!create)
+                return null;
+            days = new IntHashMap<>();
+            booked.put(doctorId, days);
+        }
+        int key = (int) date.toEpochDay();
+        Day day = days.get(key);
+        if (day == null && create) {
+            day = new Day();
+            days.put(key, day);
+        }
+        return day;
+    }
+
+    private static boolean isSet(long[] cells, int cell) {
+        return (cells[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    private static int cellOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / CELL_MINUTES;
+    }
+
+    // First cell at or after the given time; LocalTime.MAX means end of day
+    private static int endCellOf(LocalTime time) {
+        if (time.equals(LocalTime.MAX))
+            return CELLS_PER_DAY;
+        int minutes = time.getHour() * 60 + time.getMinute();
+        return (minutes + CELL_MINUTES - 1) / CELL_MINUTES;
+    }
+
+    private static int firstCell(LocalDateTime start) {
+        return cellOf(start.toLocalTime());
+    }
+
+    // Exclusive end cell, clipped at midnight
+    private static int endCell(LocalDateTime start, int minutes) {
+        int end = start.getHour() * 60 + start.getMinute() + Math.max(1, minutes);
+        return Math.min(CELLS_PER_DAY, (end + CELL_MINUTES - 1) / CELL_MINUTES);
+    }
+
+    // Set bits [from, to), a word at a time
+    private static void setRange(long[] cells, int from, int to) {
+        while (from < to) {
+            int word = from >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            int bits = wordEnd - from;
+            cells[word] |= (bits == 64 ? -1L : (1L << bits) - 1) << from; // shift distance is from % 64
+            from = wordEnd;
+        }
+    }
+}
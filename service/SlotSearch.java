@@ -0,0 +1,188 @@
+package HospitalManagement.service;
+
+import HospitalManagement.model.Doctor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * SlotSearch.java
+ *
+ * Finds the earliest free appointment slots when the requested one is taken.
+ * The requested doctor is searched first; if that doctor cannot supply enough
+ * slots inside the booking window, the remaining places are filled from peers
+ * with the same specialization, earliest first across all of them.
+ *
+ * Nothing is read from disk: weekdays come from the in-memory doctors and
+ * occupancy from the slot calendar, so each candidate slot costs one bitmap
+ * mask test. Every doctor is walked by a lazy cursor and the peers are
+ * merged through a priority queue, so the work done is proportional to the
+ * number of slots examined, not to the number of doctors times the week.
+ *
+ * Clinic hours default to 09:00-17:00 and can be changed with
+ * -Dhospital.clinicOpen / -Dhospital.clinicClose (whole hours).
+ */
+class SlotSearch {
+    static final LocalTime CLINIC_OPEN = LocalTime.of(Integer.getInteger("hospital.clinicOpen", 9), 0);
+    static final LocalTime CLINIC_CLOSE = LocalTime.of(Integer.getInteger("hospital.clinicClose", 17), 0);
+    static final int BOOKING_WINDOW_DAYS = 7;
+
+    private final AppointmentRepository appointments;
+
+    SlotSearch(AppointmentRepository appointments) {
+        this.appointments = appointments;
+    }
+
+    /** A free slot with a particular doctor */
+    static class Slot {
+        private final Doctor doctor;
+        private final LocalDateTime start;
+
+        Slot(Doctor doctor, LocalDateTime start) {
+            this.doctor = doctor;
+            this.start = start;
+        }
+
+        public Doctor getDoctor() {
+            return doctor;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public String toString() {
+            return start.toLocalDate() + " " + start.toLocalTime() + " with " + doctor.getName()
+                    + " (ID " + doctor.getId() + ", " + doctor.getSpecialization() + ")";
+        }
+    }
+
+    /**
+     * Up to limit free slots at or after requested and within the booking
+     * window: the requested doctor's first, then same-specialization peers.
+     */
+    public List<Slot> earliestFree(int doctorId, LocalDateTime requested, int limit) {
+        List<Slot> result = new ArrayList<>();
+        Doctor doctor = DoctorService.getDoctor(doctorId);
+        if (doctor == null || limit <= 0) {
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = requested.isBefore(now) ? now : requested;
+        LocalDateTime until = now.plusDays(BOOKING_WINDOW_DAYS);
+
+        Cursor own = new Cursor(doctor, from, until);
+        while (result.size() < limit && own.hasNext()) {
+            result.add(own.next());
+        }
+
+        // Fill the rest from peers, always taking the earliest slot any of them offers
+        PriorityQueue<Cursor> peers = new PriorityQueue<>((a, b) -> {
+            int byTime = a.peek().compareTo(b.peek());
+            return byTime != 0 ? byTime : Integer.compare(a.doctor.getId(), b.doctor.getId());
+        });
+        if (result.size() < limit) {
+            for (Doctor peer : DoctorService.getDoctorsBySpecialization(doctor.getSpecialization())) {
+                if (peer.getId() == doctorId)
+                    continue;
+                Cursor cursor = new Cursor(peer, from, until);
+                if (cursor.hasNext())
+                    peers.add(cursor);
+            }
+        }
+        while (result.size() < limit && !peers.isEmpty()) {
+            Cursor cursor = peers.poll();
+            result.add(cursor.next());
+            if (cursor.hasNext())
+                peers.add(cursor);
+        }
+        return result;
+    }
+
+    // Walks one doctor's free slots in time order, skipping days the doctor does not work
+    private class Cursor {
+        final Doctor doctor;
+        private final LocalDateTime until;
+        private LocalDateTime candidate;
+        private LocalDateTime nextFree;
+
+        Cursor(Doctor doctor, LocalDateTime from, LocalDateTime until) {
+            this.doctor = doctor;
+            this.until = until;
+            this.candidate = alignToSlot(from);
+            advance();
+        }
+
+        boolean hasNext() {
+            return nextFree != null;
+        }
+
+        LocalDateTime peek() {
+            return nextFree;
+        }
+
+        Slot next() {
+            Slot slot = new Slot(doctor, nextFree);
+            candidate = nextFree.plusMinutes(SlotCalendar.SLOT_MINUTES);
+            advance();
+            return slot;
+        }
+
+        private void advance() {
+            nextFree = null;
+            while (!candidate.isAfter(until)) {
+                LocalDate day = candidate.toLocalDate();
+                if (!worksOn(day)) {
+                    candidate = day.plusDays(1).atTime(CLINIC_OPEN);
+                    continue;
+                }
+                if (candidate.toLocalTime().isBefore(CLINIC_OPEN)) {
+                    candidate = day.atTime(CLINIC_OPEN);
+                }
+                if (candidate.plusMinutes(SlotCalendar.SLOT_MINUTES).isAfter(day.atTime(CLINIC_CLOSE))) {
+                    // slot would run past closing
+                    candidate = day.plusDays(1).atTime(CLINIC_OPEN);
+                    continue;
+                }
+                if (appointments.calendar().isFree(doctor.getId(), candidate, SlotCalendar.SLOT_MINUTES)) {
+                    nextFree = candidate;
+                    return;
+                }
+                candidate = candidate.plusMinutes(SlotCalendar.SLOT_MINUTES);
+            }
+        }
+
+        private boolean worksOn(LocalDate day) {
+            String dayOfWeek = day.getDayOfWeek().toString().substring(0, 3); // "MON" -> matches "Mon"
+            String[] days = doctor.getAvailability();
+            if (days == null)
+                return false;
+            for (String d : days) {
+                if (d.trim().equalsIgnoreCase(dayOfWeek))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    // Round up to the next slot boundary counted from clinic opening
+    private static LocalDateTime alignToSlot(LocalDateTime time) {
+        LocalDateTime opening = time.toLocalDate().atTime(CLINIC_OPEN);
+        if (!time.isAfter(opening)) {
+            return opening;
+        }
+        long minutes = Duration.between(opening, time).toMinutes();
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            minutes++; // part-way through a minute
+        }
+        long slots = (minutes + SlotCalendar.SLOT_MINUTES - 1) / SlotCalendar.SLOT_MINUTES;
+        return opening.plusMinutes(slots * SlotCalendar.SLOT_MINUTES);
+    }
+}
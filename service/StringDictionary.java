@@ -0,0 +1,64 @@
+package HospitalManagement.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StringDictionary.java
+ *
+ * Interning layer for the low-cardinality text columns that repeat across
+ * thousands of rows. SHARED lives as long as the process and nothing is ever
+ * evicted from it, so the CSV loaders pass only closed vocabularies through
+ * it: patient gender, doctor specialization and availability days, and
+ * canteen menu categories. Every distinct value is kept once and the per-row
+ * copies produced by the reader become garbage straight away instead of
+ * staying resident. Free text such as illness, qualification or
+ * manufacturer is not interned; code that needs codes for such a column
+ * owns a dictionary of its own that is dropped with it (PatientColumnStore).
+ * Each distinct value also gets a small int code, so code comparisons can
+ * replace String.equals where equality is needed.
+ */
+final class StringDictionary {
+    /** Dictionary shared by every loader in the process */
+    static final StringDictionary SHARED = new StringDictionary();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    StringDictionary() {
+    }
+
+    /** The canonical instance for this value (null stays null) */
+    public synchronized String intern(String value) {
+        if (value == null)
+            return null;
+        return values.get(code(value));
+    }
+
+    /** Stable code for the value, assigning the next one on first sight */
+    public synchronized int code(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /** Code of a value already in the dictionary, or -1 */
+    public synchronized int codeIfPresent(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public synchronized String value(int code) {
+        return values.get(code);
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+}
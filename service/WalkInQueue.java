@@ -0,0 +1,151 @@
+package HospitalManagement.service;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * WalkInQueue.java
+ *
+ * Lock-free FIFO for the walk-in / OPD token flow, where several
+ * registration counters enqueue while consultation rooms dequeue. This is
+ * the Michael-Scott queue: a singly linked list that starts at a dummy
+ * node, with head and tail moved only by compare-and-set. A producer links
+ * its node after the last one and then swings tail; a consumer moves head
+ * one node on. Any thread that finds tail lagging behind moves it forward
+ * itself, so no thread ever waits for another and there is no global lock.
+ *
+ * peek(), isEmpty() and iteration only read and never block producers. The
+ * iterator is weakly consistent: it sees every element present when it
+ * started that has not been dequeued since, and maybe some added later.
+ * Null elements are not allowed; dequeue() and peek() return null when the
+ * queue is empty.
+ */
+class WalkInQueue<T> implements Iterable<T> {
+
+    private static final class Node<T> {
+        volatile T item; // cleared once the node becomes the dummy head
+        volatile Node<T> next;
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<WalkInQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(WalkInQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<WalkInQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(WalkInQueue.class, Node.class, "tail");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    private volatile Node<T> head; // dummy node; the first element is head.next
+    private volatile Node<T> tail; // last node, or briefly the one before it
+
+    public WalkInQueue() {
+        head = tail = new Node<>(null);
+    }
+
+    // Enqueue: Add to rear
+    public void enqueue(T item) {
+        Objects.requireNonNull(item, "item");
+        Node<T> node = new Node<>(item);
+        while (true) {
+            Node<T> last = tail;
+            Node<T> next = last.next;
+            if (last != tail)
+                continue; // tail moved while we were reading it
+            if (next == null) {
+                if (NEXT.compareAndSet(last, null, node)) {
+                    TAIL.compareAndSet(this, last, node); // may fail: someone already helped
+                    return;
+                }
+            } else {
+                TAIL.compareAndSet(this, last, next); // help a producer that has not swung tail yet
+            }
+        }
+    }
+
+    // Dequeue: Remove from front, or null if the queue is empty
+    public T dequeue() {
+        while (true) {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = first.next;
+            if (first != head)
+                continue;
+            if (next == null)
+                return null; // empty
+            if (first == last) {
+                TAIL.compareAndSet(this, last, next); // tail is lagging; fix it before moving head past it
+                continue;
+            }
+            T item = next.item;
+            if (HEAD.compareAndSet(this, first, next)) {
+                next.item = null; // next is the new dummy; let the element be collected
+                return item;
+            }
+        }
+    }
+
+    // Peek at front (next in line), or null
+    public T peek() {
+        while (true) {
+            Node<T> next = head.next;
+            if (next == null)
+                return null;
+            T item = next.item;
+            if (item != null)
+                return item;
+            // taken by a consumer between the two reads; head has moved, look again
+        }
+    }
+
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    // Counts by walking the list: O(n), and only a snapshot under concurrent updates
+    public int size() {
+        int count = 0;
+        for (Node<T> node = head.next; node != null; node = node.next) {
+            if (node.item != null)
+                count++;
+        }
+        return count;
+    }
+
+    // Weakly consistent iterator over the waiting elements, front to back
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Node<T> node = head;
+            private T nextItem = advance();
+
+            // Move to the next node still holding an element and remember that element
+            private T advance() {
+                while ((node = node.next) != null) {
+                    T item = node.item;
+                    if (item != null)
+                        return item;
+                }
+                return null;
+            }
+
+            public boolean hasNext() {
+                return nextItem != null;
+            }
+
+            public T next() {
+                if (nextItem == null)
+                    throw new NoSuchElementException();
+                T item = nextItem;
+                nextItem = node == null ? null : advance();
+                return item;
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package HospitalManagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * WalkInQueueBenchmark.java
+ *
+ * Throughput of the lock-free WalkInQueue against a plain FIFO behind one
+ * shared lock, under contention: P registration threads enqueue while C
+ * consultation threads dequeue, until every token has passed through. The
+ * baseline is an ArrayDeque guarded by synchronized, so both candidates do
+ * the same work per token and the difference is the cost of the lock.
+ * Tokens are built before the clock starts and each consumer counts in its
+ * own slot, so the threads share nothing but the queue under test; consumers
+ * stop at an end marker queued behind the last token.
+ *
+ * Run from the project root after compiling:
+ * java -cp out HospitalManagement.service.WalkInQueueBenchmark [producers] [consumers] [tokensPerProducer]
+ */
+public final class WalkInQueueBenchmark {
+    private static final int PAD = 16; // longs between two consumers' counters (128 bytes)
+    private static final WalkInToken END = new WalkInToken(0, 0, "End", "End", LocalDateTime.MIN, 0); // stops one consumer
+
+    // The operations both candidates are measured on
+    private interface Fifo {
+        void enqueue(WalkInToken token);
+
+        WalkInToken dequeue(); // null when empty
+    }
+
+    private WalkInQueueBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int perProducer = args.length > 2 ? Integer.parseInt(args[2]) : 250_000;
+
+        System.out.printf("%d producers, %d consumers, %d tokens each%n", producers, consumers, perProducer);
+        for (int round = 1; round <= 3; round++) { // the first round doubles as JIT warm-up
+            WalkInQueue<WalkInToken> lockFree = new WalkInQueue<>();
+            double lockFreeOps = run(new Fifo() {
+                public void enqueue(WalkInToken token) {
+                    lockFree.enqueue(token);
+                }
+
+                public WalkInToken dequeue() {
+                    return lockFree.dequeue();
+                }
+            }, producers, consumers, perProducer);
+
+            ArrayDeque<WalkInToken> deque = new ArrayDeque<>();
+            double lockedOps = run(new Fifo() {
+                public synchronized void enqueue(WalkInToken token) {
+                    deque.addLast(token);
+                }
+
+                public synchronized WalkInToken dequeue() {
+                    return deque.pollFirst();
+                }
+            }, producers, consumers, perProducer);
+
+            System.out.printf("round %d: WalkInQueue %,.0f ops/s | synchronized ArrayDeque %,.0f ops/s (%.2fx)%n",
+                    round, lockFreeOps, lockedOps, lockFreeOps / lockedOps);
+        }
+    }
+
+    // Enqueues plus dequeues per second. The tokens are built before the clock starts and every
+    // consumer counts in its own slot, so the only state the threads share is the queue itself.
+    private static double run(Fifo fifo, int producers, int consumers, int perProducer)
+            throws InterruptedException {
+        long total = (long) producers * perProducer;
+        WalkInToken[][] tokens = new WalkInToken[producers][perProducer];
+        LocalDateTime now = LocalDateTime.now();
+        for (int p = 0; p < producers; p++) {
+            for (int i = 0; i < perProducer; i++) {
+                int id = p * perProducer + i + 1;
+                tokens[p][i] = new WalkInToken(id, id, "Walk-in", "OPD", now, 100); // as registerWalkIn() makes them
+            }
+        }
+
+        long[] consumed = new long[consumers * PAD]; // one slot per consumer, a cache line apart
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch produced = new CountDownLatch(producers);
+        CountDownLatch done = new CountDownLatch(consumers);
+
+        for (int p = 0; p < producers; p++) {
+            WalkInToken[] mine = tokens[p];
+            new Thread(() -> {
+                await(start);
+                for (WalkInToken token : mine) {
+                    fifo.enqueue(token);
+                }
+                produced.countDown();
+            }).start();
+        }
+        for (int c = 0; c < consumers; c++) {
+            int slot = c * PAD;
+            new Thread(() -> {
+                await(start);
+                long count = 0;
+                WalkInToken token;
+                while (true) {
+                    if ((token = fifo.dequeue()) == null) {
+                        Thread.onSpinWait();
+                    } else if (token == END) {
+                        break;
+                    } else {
+                        count++;
+                    }
+                }
+                consumed[slot] = count;
+                done.countDown();
+            }).start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        produced.await();
+        for (int c = 0; c < consumers; c++) {
+            fifo.enqueue(END); // queued behind every token, so each consumer stops once the queue is drained
+        }
+        done.await();
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        long sum = 0;
+        for (int c = 0; c < consumers; c++) {
+            sum += consumed[c * PAD];
+        }
+        if (sum != total) {
+            throw new IllegalStateException("consumed " + sum + " of " + total + " tokens");
+        }
+        return 2.0 * total / seconds;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package HospitalManagement.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * WalkInToken.java
+ *
+ * One patient waiting in the walk-in / OPD queue. Tokens live only in
+ * memory and are numbered from their own counter, not from the appointment
+ * ID sequence: a walk-in is never written to Appointments.csv, so taking an
+ * appointment ID for it would leave a gap in the saved IDs.
+ */
+class WalkInToken {
+    private final int number;
+    private final int patientId;
+    private final String patientName;
+    private final String reason;
+    private final LocalDateTime arrivedAt;
+    private final int doctorId;
+
+    WalkInToken(int number, int patientId, String patientName, String reason, LocalDateTime arrivedAt, int doctorId) {
+        this.number = number;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.reason = reason;
+        this.arrivedAt = arrivedAt;
+        this.doctorId = doctorId;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public LocalDateTime getArrivedAt() {
+        return arrivedAt;
+    }
+
+    public int getDoctorId() {
+        return doctorId;
+    }
+
+    @Override
+    public String toString() {
+        return "WalkIn{" +
+                "Token=" + number +
+                ", Patient='" + patientName + '\'' +
+                ", Reason='" + reason + '\'' +
+                ", Arrived=" + arrivedAt +
+                ", DoctorID=" + doctorId +
+                '}';
+    }
+}